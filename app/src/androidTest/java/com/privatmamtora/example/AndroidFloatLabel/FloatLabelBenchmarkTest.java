@@ -0,0 +1,55 @@
+package com.privatmamtora.example.AndroidFloatLabel;
+
+import android.content.Intent;
+import android.test.ActivityInstrumentationTestCase2;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * Fails when FloatLabel allocates more than the budgets of {@link FloatLabelBenchmark}: keystrokes
+ * into a warmed-up field, focus changes with its label shown, and show/hide transitions of each
+ * LabelAnimator, canceled and played over real frames.
+ * <pre>
+ * ./gradlew connectedAndroidTest
+ * </pre>
+ */
+public class FloatLabelBenchmarkTest extends ActivityInstrumentationTestCase2<BenchmarkActivity> {
+
+    private static final int FIELDS = 20;
+    private static final int ITERATIONS = 200;
+
+    public FloatLabelBenchmarkTest() {
+        super(BenchmarkActivity.class);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // The test runs the benchmark itself
+        setActivityIntent(new Intent().putExtra(BenchmarkActivity.EXTRA_RUN, false));
+    }
+
+    public void testAllocationBudgets() throws JSONException {
+        // Runs on the instrumentation thread, the benchmark posts its measures to the UI thread
+        FloatLabelBenchmark benchmark = new FloatLabelBenchmark(getActivity().getHost(), FIELDS, ITERATIONS);
+        JSONObject budgets = benchmark.run().getJSONObject("budgets");
+
+        assertTrue("No budget checked, allocation counting is not supported by this runtime",
+                budgets.length() > 0);
+
+        StringBuilder failures = new StringBuilder();
+        Iterator<?> names = budgets.keys();
+        while (names.hasNext()) {
+            String name = (String) names.next();
+            JSONObject check = budgets.getJSONObject(name);
+            if (!check.getBoolean("pass")) {
+                failures.append(name).append(": ").append(check.get("allocs"))
+                        .append(" allocations, budget ").append(check.get("budget")).append('\n');
+            }
+        }
+        assertTrue("Allocation budgets exceeded:\n" + failures, failures.length() == 0);
+    }
+}
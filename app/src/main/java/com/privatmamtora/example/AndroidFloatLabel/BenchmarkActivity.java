@@ -0,0 +1,123 @@
+package com.privatmamtora.example.AndroidFloatLabel;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Runs {@link FloatLabelBenchmark} and writes its JSON results to the log (tag FloatLabelBenchmark)
+ * and to files/floatlabel-benchmark.json. Allocation budgets exceeded are also logged as an error.
+ * Can be started from the menu of the sample, or with:
+ * <pre>
+ * adb shell am start -n com.privatmamtora.example.AndroidFloatLabel/.BenchmarkActivity --ei fields 200 --ei iterations 1000
+ * </pre>
+ * The benchmark runs on a background thread, the UI thread has to draw the frames of the
+ * transitions it measures.
+ */
+public class BenchmarkActivity extends Activity {
+
+    private static final String TAG = "FloatLabelBenchmark";
+
+    public static final String EXTRA_FIELDS = "fields";
+    public static final String EXTRA_ITERATIONS = "iterations";
+    // False to only set up the host, e.g. for FloatLabelBenchmarkTest
+    public static final String EXTRA_RUN = "run";
+
+    private TextView mOutput;
+    private FrameLayout mHost;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        mOutput = new TextView(this);
+        mOutput.setText("Running...");
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(mOutput);
+
+        // Fields measured while attached are added there
+        mHost = new FrameLayout(this);
+
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        root.addView(mHost);
+        root.addView(scrollView);
+        setContentView(root);
+
+        final int fields = getIntent().getIntExtra(EXTRA_FIELDS, 100);
+        final int iterations = getIntent().getIntExtra(EXTRA_ITERATIONS, 500);
+
+        if (getIntent().getBooleanExtra(EXTRA_RUN, true)) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runBenchmark(fields, iterations);
+                }
+            }, TAG).start();
+        }
+    }
+
+    /**
+     * @return the attached layout the benchmark adds its fields to
+     */
+    ViewGroup getHost() {
+        return mHost;
+    }
+
+    private void runBenchmark(int fields, int iterations) {
+        String output;
+        try {
+            FloatLabelBenchmark benchmark = new FloatLabelBenchmark(mHost, fields, iterations);
+            JSONObject results = benchmark.run();
+            String json = results.toString();
+
+            Log.i(TAG, json);
+            if (!benchmark.isBudgetsPass()) {
+                Log.e(TAG, "Allocation budget exceeded: " + results.get("budgets"));
+            }
+            writeResults(json);
+            output = results.toString(2);
+        } catch (JSONException e) {
+            Log.e(TAG, "Could not write the results", e);
+            output = e.toString();
+        }
+
+        final String text = output;
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                mOutput.setText(text);
+            }
+        });
+    }
+
+    private void writeResults(String json) {
+        File file = new File(getFilesDir(), "floatlabel-benchmark.json");
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            out.write(json.getBytes("UTF-8"));
+        } catch (IOException e) {
+            Log.e(TAG, "Could not write " + file, e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,628 @@
+package com.privatmamtora.example.AndroidFloatLabel;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.AnimatorSet;
+import android.animation.ObjectAnimator;
+import android.animation.PropertyValuesHolder;
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.InputType;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+
+import com.privatmamtora.AndroidFloatLabel.CancelableLabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.DefaultLabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.FloatLabel;
+import com.privatmamtora.AndroidFloatLabel.FloatLabelGroup;
+import com.privatmamtora.AndroidFloatLabel.FloatLabelMetrics;
+import com.privatmamtora.AndroidFloatLabel.LabelStyle;
+import com.privatmamtora.AndroidFloatLabel.LabelTransitionSpec;
+import com.privatmamtora.AndroidFloatLabel.PropertyLabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.ReusableLabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.SpecLabelAnimator;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Measures what FloatLabel costs: inflation from XML and from code, keystrokes through its text
+ * watcher, allocations per show/hide of each LabelAnimator, and saved state size and time for a
+ * large form. Results are returned as JSON, so that runs of different library versions can be
+ * compared.
+ * <p/>
+ * Allocations are also checked against budgets (see the BUDGET_ constants): typing into a
+ * warmed-up field, moving the focus in and out of it with its label shown and toggling its label
+ * must not allocate more than their budget. Transitions are measured twice, canceled right after
+ * they start and played over real animation frames, both on top of a baseline measured first:
+ * the same transitions played with the bare animation framework, built the way each animator
+ * builds its animations. The "budgets" object of the results lists every check,
+ * "budgets_pass" is false as soon as one is over budget; FloatLabelBenchmarkTest asserts them.
+ * <p/>
+ * Must not run on the UI thread: every measure is posted to it, and the benchmark waits while the
+ * UI thread draws the frames of the played transitions. Allocation counts come from
+ * {@link Debug#getThreadAllocCount()} on the UI thread, budgets are not checked on runtimes
+ * which do not support it.
+ */
+public class FloatLabelBenchmark {
+
+    private static final int WARMUP = 5;
+
+    // Transitions played over real frames, each lasting a few frames
+    private static final int FRAMED_TRANSITIONS = 10;
+    private static final int FRAMED_DURATION = 100;
+    private static final int FRAME_SLACK = 50;
+
+    // Allocations allowed on top of a bare EditText, measured first, for all the keystrokes of a
+    // run: a warmed-up field only flips its label and updates state it already holds
+    private static final int BUDGET_KEYSTROKES = 0;
+    // Allocations allowed for all the focus changes of a run: the activation ramp reuses its
+    // animator and its colors
+    private static final int BUDGET_FOCUS_CHANGES = 0;
+
+    // Allocations per show/hide allowed on top of the baseline of each animator. An animator which
+    // only matches its baseline in what it allocates, not in every call, gets 1 allocation per
+    // start of margin, so 2 per show/hide, for the lists the framework grows now and then
+    private static final float MARGIN_PER_SHOW_HIDE = 2;
+    // Restart a single ValueAnimator per label, exactly as the bare ValueAnimator baseline
+    private static final float BUDGET_REUSABLE_ANIMATOR = 0;
+    private static final float BUDGET_SPEC_ANIMATOR = 0;
+    private static final float BUDGET_GROUP = 0;
+    // Sets new values on two PropertyValuesHolders every start, creating their keyframes, as its
+    // baseline does, but plays them through an ObjectAnimator
+    private static final float BUDGET_PROPERTY_ANIMATOR = MARGIN_PER_SHOW_HIDE;
+    // Builds a new AnimatorSet of two ObjectAnimators every start, as its baseline does, but
+    // through its own transition state
+    private static final float BUDGET_DEFAULT_ANIMATOR = MARGIN_PER_SHOW_HIDE;
+
+    private final Context mContext;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final ViewGroup mHost;
+    private final int mFieldCount;
+    private final int mIterations;
+
+    // Resolved once and shared by all the fields built in code
+    private final LabelStyle mStyle;
+
+    private JSONObject mBudgets;
+    private boolean mBudgetsPass;
+
+    /**
+     * @param host       attached layout to which the fields typed into are added, so that posting
+     *                   from them goes through the window Handler as in an app
+     * @param fieldCount number of fields inflated and saved at once
+     * @param iterations number of keystrokes, focus changes and show/hide transitions measured
+     */
+    public FloatLabelBenchmark(ViewGroup host, int fieldCount, int iterations) {
+        mContext = host.getContext();
+        mHost = host;
+        mFieldCount = fieldCount;
+        mIterations = iterations;
+        mStyle = LabelStyle.fromResource(mContext, R.style.BenchmarkField);
+    }
+
+    public JSONObject run() throws JSONException {
+        mBudgets = new JSONObject();
+        mBudgetsPass = true;
+
+        final JSONObject results = new JSONObject();
+        results.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+        results.put("sdk", Build.VERSION.SDK_INT);
+        results.put("timestamp", System.currentTimeMillis());
+        results.put("fields", mFieldCount);
+        results.put("iterations", mIterations);
+
+        onUiThread(new Callable<Void>() {
+            @Override
+            public Void call() throws JSONException {
+                results.put("inflate_xml", measureInflate(true));
+                results.put("inflate_builder", measureInflate(false));
+                results.put("keystroke", measureKeystrokes());
+                results.put("focus", measureFocusChanges());
+                return null;
+            }
+        });
+
+        JSONObject transitions = new JSONObject();
+        JSONObject baseline = measureTransitions(new BaselineAnimator(false), new View(mContext));
+        JSONObject newValues = measureTransitions(new BaselineAnimator(true), new View(mContext));
+        JSONObject newSet = measureTransitions(new AnimatorSetBaseline(), new View(mContext));
+        transitions.put("ValueAnimator", baseline);
+        transitions.put("ValueAnimator_new_values", newValues);
+        transitions.put("AnimatorSet", newSet);
+        transitions.put("DefaultLabelAnimator",
+                measureTransitions(new DefaultLabelAnimator(), newSet, BUDGET_DEFAULT_ANIMATOR));
+        transitions.put("ReusableLabelAnimator",
+                measureTransitions(new ReusableLabelAnimator(), baseline, BUDGET_REUSABLE_ANIMATOR));
+        transitions.put("PropertyLabelAnimator",
+                measureTransitions(new PropertyLabelAnimator(), newValues, BUDGET_PROPERTY_ANIMATOR));
+        transitions.put("SpecLabelAnimator",
+                measureTransitions(new SpecLabelAnimator(LabelTransitionSpec.DEFAULT), baseline, BUDGET_SPEC_ANIMATOR));
+        transitions.put("FloatLabelGroup",
+                measureTransitions(new FloatLabelGroup(), baseline, BUDGET_GROUP));
+        results.put("transition", transitions);
+
+        results.put("save_restore", onUiThread(new Callable<JSONObject>() {
+            @Override
+            public JSONObject call() throws JSONException {
+                return measureSaveRestore();
+            }
+        }));
+
+        results.put("budgets", mBudgets);
+        results.put("budgets_pass", mBudgetsPass);
+        return results;
+    }
+
+    /**
+     * @return false if a run allocated more than its budget
+     */
+    public boolean isBudgetsPass() {
+        return mBudgetsPass;
+    }
+
+    /**
+     * Both paths build the same field with the same label style, the builder skips the XML
+     */
+    private JSONObject measureInflate(boolean fromXml) throws JSONException {
+        LayoutInflater inflater = LayoutInflater.from(mContext);
+        LinearLayout parent = new LinearLayout(mContext);
+
+        FloatLabelMetrics.Counter counter = new FloatLabelMetrics.Counter();
+        FloatLabelMetrics.Listener previous = FloatLabelMetrics.getListener();
+        FloatLabelMetrics.setListener(counter);
+
+        startAllocCounting();
+        long start = System.nanoTime();
+        for (int i = 0; i < mFieldCount; i++) {
+            if (fromXml) {
+                inflater.inflate(R.layout.benchmark_field, parent, false);
+            } else {
+                newField();
+            }
+        }
+        long total = System.nanoTime() - start;
+        int allocs = stopAllocCounting();
+
+        FloatLabelMetrics.setListener(previous);
+
+        JSONObject result = new JSONObject();
+        result.put("total_ns", total);
+        result.put("per_field_ns", total / mFieldCount);
+        result.put("allocs_per_field", allocs / mFieldCount);
+        // Attribute parsing and label setup only, reported by FloatLabel (XML only)
+        if (counter.getInflateCount() > 0) {
+            result.put("setup_per_field_ns", counter.getInflateNanos() / counter.getInflateCount());
+        }
+        return result;
+    }
+
+    private JSONObject measureKeystrokes() throws JSONException {
+        FloatLabel field = newField();
+        // Same keystrokes without FloatLabel, to isolate its share
+        EditText baseline = new EditText(mContext);
+        mHost.addView(field);
+        mHost.addView(baseline);
+
+        // Creates the label and fills the caches
+        type(field.getEditText());
+        type(baseline);
+
+        startAllocCounting();
+        long fieldNs = type(field.getEditText());
+        int fieldAllocs = stopAllocCounting();
+
+        startAllocCounting();
+        long baselineNs = type(baseline);
+        int baselineAllocs = stopAllocCounting();
+
+        mHost.removeView(field);
+        mHost.removeView(baseline);
+
+        int keystrokes = 2 * mIterations;
+        JSONObject result = new JSONObject();
+        result.put("per_keystroke_ns", fieldNs / keystrokes);
+        result.put("baseline_per_keystroke_ns", baselineNs / keystrokes);
+        result.put("allocs_per_keystroke", fieldAllocs / (float) keystrokes);
+        result.put("baseline_allocs_per_keystroke", baselineAllocs / (float) keystrokes);
+
+        // Counting is only known to work if the EditText itself was seen allocating
+        if (baselineAllocs > 0) {
+            checkBudget("keystrokes", fieldAllocs - baselineAllocs, BUDGET_KEYSTROKES);
+        }
+        return result;
+    }
+
+    /**
+     * Types then deletes mIterations characters, the label is shown and hidden once
+     */
+    private long type(EditText editText) {
+        Editable text = editText.getText();
+        long start = System.nanoTime();
+        for (int i = 0; i < mIterations; i++) {
+            text.append('a');
+        }
+        for (int i = mIterations; i > 0; i--) {
+            text.delete(i - 1, i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private JSONObject measureFocusChanges() throws JSONException {
+        FloatLabel field = newField();
+        EditText editText = field.getEditText();
+        mHost.addView(field);
+        // A hidden label is only activated, the color transition needs it shown
+        field.bind("a", null, false);
+
+        // The listener FloatLabel installs to activate its label
+        View.OnFocusChangeListener listener = editText.getOnFocusChangeListener();
+        for (int i = 0; i < WARMUP; i++) {
+            listener.onFocusChange(editText, true);
+            listener.onFocusChange(editText, false);
+        }
+
+        startAllocCounting();
+        long start = System.nanoTime();
+        for (int i = 0; i < mIterations; i++) {
+            listener.onFocusChange(editText, true);
+            listener.onFocusChange(editText, false);
+        }
+        long total = System.nanoTime() - start;
+        int allocs = stopAllocCounting();
+
+        mHost.removeView(field);
+
+        JSONObject result = new JSONObject();
+        result.put("per_focus_change_ns", total / (2 * mIterations));
+        result.put("allocs", allocs);
+        checkBudget("focus_changes", allocs, BUDGET_FOCUS_CHANGES);
+        return result;
+    }
+
+    /**
+     * @param baseline measure of the baseline animator the allocations are counted on top of
+     */
+    private JSONObject measureTransitions(final CancelableLabelAnimator animator, JSONObject baseline, float budget)
+            throws JSONException {
+        View label = onUiThread(new Callable<View>() {
+            @Override
+            public View call() {
+                FloatLabel field = newField();
+                field.setLabelAnimator(animator);
+                return field.getLabelView();
+            }
+        });
+        JSONObject result = measureTransitions(animator, label);
+
+        // The baselines always allocate, nothing counted means counting is not supported
+        String name = animator.getClass().getSimpleName();
+        float perShowHide = (float) baseline.getDouble("allocs_per_show_hide");
+        if (perShowHide > 0) {
+            checkBudget(name, (float) result.getDouble("allocs_per_show_hide") - perShowHide, budget);
+        }
+        float perFramedShowHide = (float) baseline.getDouble("allocs_per_framed_show_hide");
+        if (perFramedShowHide > 0 && result.getInt("frames") > 0) {
+            checkBudget(name + "_frames",
+                    (float) result.getDouble("allocs_per_framed_show_hide") - perFramedShowHide, budget);
+        }
+        return result;
+    }
+
+    private JSONObject measureTransitions(final CancelableLabelAnimator animator, final View label)
+            throws JSONException {
+        final JSONObject result = new JSONObject();
+        onUiThread(new Callable<Void>() {
+            @Override
+            public Void call() throws JSONException {
+                for (int i = 0; i < WARMUP; i++) {
+                    showHide(animator, label);
+                }
+
+                startAllocCounting();
+                long start = System.nanoTime();
+                for (int i = 0; i < mIterations; i++) {
+                    showHide(animator, label);
+                }
+                long total = System.nanoTime() - start;
+                int allocs = stopAllocCounting();
+
+                result.put("per_show_hide_ns", total / mIterations);
+                result.put("allocs_per_show_hide", allocs / (float) mIterations);
+                return null;
+            }
+        });
+
+        // Same transitions played to their end, so that their frames are counted too
+        framedShowHide(animator, label);
+
+        final FloatLabelMetrics.Counter counter = new FloatLabelMetrics.Counter();
+        final FloatLabelMetrics.Listener previous = onUiThread(new Callable<FloatLabelMetrics.Listener>() {
+            @Override
+            public FloatLabelMetrics.Listener call() {
+                FloatLabelMetrics.Listener previous = FloatLabelMetrics.getListener();
+                FloatLabelMetrics.setListener(counter);
+                startAllocCounting();
+                return previous;
+            }
+        });
+        for (int i = 0; i < FRAMED_TRANSITIONS; i++) {
+            framedShowHide(animator, label);
+        }
+        int allocs = onUiThread(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                int allocs = stopAllocCounting();
+                FloatLabelMetrics.setListener(previous);
+                return allocs;
+            }
+        });
+
+        result.put("frames", counter.getAnimationFrameCount());
+        result.put("allocs_per_framed_show_hide", allocs / (float) FRAMED_TRANSITIONS);
+        return result;
+    }
+
+    /**
+     * Starts a show then a hide, each canceled right away as no frame is drawn in between
+     */
+    private static void showHide(CancelableLabelAnimator animator, View label) {
+        animator.onDisplayLabel(label, -1);
+        animator.onCancelLabel(label);
+        label.setVisibility(View.VISIBLE);
+
+        animator.onHideLabel(label, -1);
+        animator.onCancelLabel(label);
+        label.setVisibility(View.INVISIBLE);
+    }
+
+    /**
+     * Plays a show then a hide, waiting for the UI thread to draw the frames of each
+     */
+    private void framedShowHide(final CancelableLabelAnimator animator, final View label) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                animator.onDisplayLabel(label, FRAMED_DURATION);
+            }
+        });
+        SystemClock.sleep(FRAMED_DURATION + FRAME_SLACK);
+
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                animator.onHideLabel(label, FRAMED_DURATION);
+            }
+        });
+        SystemClock.sleep(FRAMED_DURATION + FRAME_SLACK);
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject measureSaveRestore() throws JSONException {
+        LinearLayout form = newForm();
+        SparseArray<Parcelable> container = new SparseArray<Parcelable>();
+
+        long start = System.nanoTime();
+        form.saveHierarchyState(container);
+        long saveNs = System.nanoTime() - start;
+
+        Parcel parcel = Parcel.obtain();
+        parcel.writeSparseArray((SparseArray<Object>) (SparseArray<?>) container);
+        int size = parcel.dataSize();
+        parcel.recycle();
+
+        LinearLayout restored = newForm();
+        start = System.nanoTime();
+        restored.restoreHierarchyState(container);
+        long restoreNs = System.nanoTime() - start;
+
+        JSONObject result = new JSONObject();
+        result.put("save_ns", saveNs);
+        result.put("restore_ns", restoreNs);
+        result.put("parcel_bytes", size);
+        result.put("parcel_bytes_per_field", size / mFieldCount);
+        return result;
+    }
+
+    /**
+     * @return mFieldCount fields with ids, every other one filled in
+     */
+    private LinearLayout newForm() {
+        LinearLayout form = new LinearLayout(mContext);
+        form.setOrientation(LinearLayout.VERTICAL);
+        for (int i = 0; i < mFieldCount; i++) {
+            FloatLabel field = newField();
+            field.setId(2 * i + 1);
+            field.getEditText().setId(2 * i + 2);
+            if (i % 2 == 0) {
+                field.getEditText().setText("Value " + i);
+            }
+            form.addView(field);
+        }
+        return form;
+    }
+
+    /**
+     * @return the same field as R.layout.benchmark_field, built in code
+     */
+    private FloatLabel newField() {
+        EditText editText = new EditText(mContext);
+        editText.setSingleLine(true);
+        editText.setInputType(InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_FLAG_NO_SUGGESTIONS);
+
+        return new FloatLabel.Builder(mContext)
+                .setStyle(mStyle)
+                .setEditText(editText)
+                .setHint("Benchmark field")
+                .build();
+    }
+
+    private void checkBudget(String name, float allocs, float budget) throws JSONException {
+        boolean pass = allocs <= budget;
+        mBudgetsPass &= pass;
+
+        JSONObject check = new JSONObject();
+        check.put("allocs", allocs);
+        check.put("budget", budget);
+        check.put("pass", pass);
+        mBudgets.put(name, check);
+    }
+
+    /**
+     * Runs the task on the UI thread and waits for its result
+     */
+    private <T> T onUiThread(Callable<T> task) throws JSONException {
+        FutureTask<T> future = new FutureTask<T>(task);
+        mHandler.post(future);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the UI thread", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof JSONException) {
+                throw (JSONException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void startAllocCounting() {
+        // Leftovers of the previous measure must not be counted
+        System.gc();
+        SystemClock.sleep(50);
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+    }
+
+    private static int stopAllocCounting() {
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+
+    /**
+     * A bare ValueAnimator with the listeners every LabelAnimator installs, which it copies on
+     * each start, cancel and end
+     */
+    private static class BaselineAnimator extends AnimatorListenerAdapter
+            implements CancelableLabelAnimator, ValueAnimator.AnimatorUpdateListener {
+        private final PropertyValuesHolder mFirst = PropertyValuesHolder.ofFloat("first", 0, 1);
+        private final PropertyValuesHolder mSecond = PropertyValuesHolder.ofFloat("second", 0, 1);
+        private final ValueAnimator mAnimator = ValueAnimator.ofPropertyValuesHolder(mFirst, mSecond);
+        private final long mDefaultDuration = mAnimator.getDuration();
+        private final boolean mNewValues;
+
+        /**
+         * @param newValues whether both values are given new keyframes on every start
+         */
+        BaselineAnimator(boolean newValues) {
+            mNewValues = newValues;
+            mAnimator.addUpdateListener(this);
+            mAnimator.addListener(this);
+        }
+
+        @Override
+        public void onDisplayLabel(View label, int duration) {
+            start(duration);
+        }
+
+        @Override
+        public void onHideLabel(View label, int duration) {
+            start(duration);
+        }
+
+        @Override
+        public void onCancelLabel(View label) {
+            mAnimator.cancel();
+        }
+
+        private void start(int duration) {
+            mAnimator.cancel();
+            if (mNewValues) {
+                mFirst.setFloatValues(0, 1);
+                mSecond.setFloatValues(0, 1);
+            }
+            mAnimator.setDuration(duration >= 0 ? duration : mDefaultDuration);
+            mAnimator.start();
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+        }
+    }
+
+    /**
+     * A new AnimatorSet of two ObjectAnimators on every start, with an end listener and a frame
+     * listener, the way a one-off animation is usually written
+     */
+    private static class AnimatorSetBaseline implements CancelableLabelAnimator {
+        private Animator mAnimation;
+
+        @Override
+        public void onDisplayLabel(View label, int duration) {
+            start(label, duration);
+        }
+
+        @Override
+        public void onHideLabel(View label, int duration) {
+            start(label, duration);
+        }
+
+        @Override
+        public void onCancelLabel(View label) {
+            if (mAnimation != null) {
+                Animator running = mAnimation;
+                mAnimation = null;
+                running.cancel();
+            }
+        }
+
+        private void start(View label, int duration) {
+            onCancelLabel(label);
+
+            AnimatorSet animation = new AnimatorSet();
+            ObjectAnimator move = ObjectAnimator.ofFloat(label, "translationY", 0, 1);
+            ObjectAnimator fade = ObjectAnimator.ofFloat(label, "alpha", 0, 1);
+            animation.playTogether(move, fade);
+            fade.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                }
+            });
+            animation.addListener(new AnimatorListenerAdapter() {
+                @Override
+                public void onAnimationEnd(Animator animation) {
+                    if (mAnimation == animation) {
+                        mAnimation = null;
+                    }
+                }
+            });
+
+            if (duration >= 0) {
+                animation.setDuration(duration);
+            }
+            mAnimation = animation;
+            animation.start();
+        }
+    }
+}
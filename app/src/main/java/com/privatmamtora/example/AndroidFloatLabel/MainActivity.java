@@ -1,19 +1,20 @@
 package com.privatmamtora.example.AndroidFloatLabel;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.AnimatorSet;
-import android.animation.ObjectAnimator;
+import android.content.Intent;
 import android.graphics.Typeface;
 import android.os.Bundle;
 import android.support.v7.app.ActionBarActivity;
 import android.view.Menu;
 import android.view.MenuItem;
-import android.view.View;
 import android.widget.TextView;
 
 import com.privatmamtora.AndroidFloatLabel.FloatLabel;
-import com.privatmamtora.AndroidFloatLabel.LabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.LabelTransitionSpec;
+import com.privatmamtora.AndroidFloatLabel.SpecLabelAnimator;
+import com.privatmamtora.AndroidFloatLabel.TextValidator;
+import com.privatmamtora.AndroidFloatLabel.TypefaceCache;
+
+import java.util.regex.Pattern;
 
 
 public class MainActivity extends ActionBarActivity {
@@ -42,77 +43,34 @@ public class MainActivity extends ActionBarActivity {
         if (id == R.id.action_settings) {
             return true;
         }
+        if (id == R.id.action_benchmark) {
+            startActivity(new Intent(this, BenchmarkActivity.class));
+            return true;
+        }
         return super.onOptionsItemSelected(item);
     }
 
     private void setupLabels() {
         FloatLabel f = (FloatLabel) findViewById(R.id.f4);
-        Typeface typeface = Typeface.createFromAsset(getAssets(), "RobotoCondensed-LightItalic.ttf");
+        Typeface typeface = TypefaceCache.getFromAsset(this, "RobotoCondensed-LightItalic.ttf");
         f.setLabelTypeface(typeface);
         TextView tv = f.getLabel();
-        f.setLabelAnimator(new NewLabelAnimation());
-
-    }
-
-    private static class NewLabelAnimation implements LabelAnimator {
-
-        private NewLabelAnimation() {
-        }
-
-        @Override
-        public void onDisplayLabel(final View label, int duration) {
-            showLabel(label, duration, true);
-        }
-
-        @Override
-        public void onHideLabel(final View label, int duration) {
-            showLabel(label, duration, false);
-        }
-
-        private void showLabel(final View label, int duration, final boolean show) {
-            AnimatorSet animation = null;
-            String tranY = "translationY";
-            String a = "alpha";
-
-            int vis = label.getVisibility();
-            if (vis == View.VISIBLE && !show) {
-                animation = new AnimatorSet();
-                ObjectAnimator move = ObjectAnimator.ofFloat(label, tranY, 0, label.getHeight() / 8);
 
-                ObjectAnimator fade = ObjectAnimator.ofFloat(label, a, 1, 0);
-
-                ObjectAnimator rotationAnim = ObjectAnimator.ofFloat(label, "rotationX", 180);
-                animation.playTogether(move, fade, rotationAnim);
-
-            }
-            else if (vis == View.INVISIBLE && show) {
-                animation = new AnimatorSet();
-                ObjectAnimator move = ObjectAnimator.ofFloat(label, tranY, label.getHeight() / 8, 0);
-                ObjectAnimator fade = ObjectAnimator.ofFloat(label, a, 0, 1);
-                ObjectAnimator rotationAnim = ObjectAnimator.ofFloat(label, "rotationX", -180);
-                animation.playTogether(move, fade, rotationAnim);
+        // Default fade/slide, plus a flip around the X axis
+        LabelTransitionSpec flip = new LabelTransitionSpec.Builder()
+                .addProperty(LabelTransitionSpec.ALPHA, 0, 1)
+                .addProperty(LabelTransitionSpec.TRANSLATION_Y, 0.125f, 0)
+                .addProperty(LabelTransitionSpec.ROTATION_X, 180, 0)
+                .build();
+        f.setLabelAnimator(new SpecLabelAnimator(flip));
+
+        // Checked off the UI thread once typing pauses
+        final Pattern letters = Pattern.compile("[\\p{L} ]*");
+        f.addValidator(new TextValidator() {
+            @Override
+            public CharSequence validate(String text) {
+                return letters.matcher(text).matches() ? null : "Letters only";
             }
-
-            if (animation != null) {
-                animation.addListener(new AnimatorListenerAdapter() {
-                    @Override
-                    public void onAnimationStart(Animator animation) {
-                        //super.onAnimationStart(animation);
-                        label.setVisibility(View.VISIBLE);
-                    }
-
-                    @Override
-                    public void onAnimationEnd(Animator animation) {
-                        //super.onAnimationEnd(animation);
-                        label.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
-                    }
-                });
-
-                if(duration >= 0) {
-                    animation.setDuration(duration);
-                }
-                animation.start();
-            }
-        }
+        });
     }
 }
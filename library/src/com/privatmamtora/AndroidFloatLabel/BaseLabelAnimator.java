@@ -0,0 +1,260 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
+import android.content.ContentResolver;
+import android.os.Build;
+import android.provider.Settings;
+import android.view.View;
+
+/**
+ * Transition state machine shared by the library animators. The state of each label is a
+ * {@link Transition} kept against the label view (see {@link View#setTag(int, Object)}), so one
+ * animator can be shared by any number of {@link FloatLabel}s. A transition requested while the
+ * opposite one is running reverses from the current frame, and only plays the part that is left.
+ * <p/>
+ * Subclasses only create the transition of a label and write its properties.
+ */
+abstract class BaseLabelAnimator implements CancelableLabelAnimator {
+
+	// ValueAnimator default
+	static final long DEFAULT_DURATION = 300;
+
+	private int mLayerMode = LAYER_AUTO;
+
+	/**
+	 * @param mode {@link #LAYER_AUTO}, {@link #LAYER_ALWAYS} or {@link #LAYER_NEVER}: whether the
+	 *             label is put on a hardware layer while it animates
+	 */
+	public void setLayerMode(int mode) {
+		mLayerMode = mode;
+	}
+
+	@Override
+	public void onDisplayLabel(final View label, int duration) {
+		start(label, duration, true);
+	}
+
+	@Override
+	public void onHideLabel(final View label, int duration) {
+		start(label, duration, false);
+	}
+
+	@Override
+	public void onCancelLabel(final View label) {
+		Object tag = label.getTag(R.id.fl_label_transition);
+		if (tag instanceof Transition && ((Transition) tag).isRunning()) {
+			FloatLabelMetrics.transitionCanceled(label);
+			((Transition) tag).stop();
+		}
+		LabelLayers.end(label);
+	}
+
+	/**
+	 * Stops the transition of the label, if any, and puts it in the shown or hidden state
+	 * right away
+	 */
+	void snap(View label, boolean show) {
+		onCancelLabel(label);
+		// A transition may have left any property halfway, e.g. a rotation
+		LabelTransitionSpec.reset(label);
+		if (show) {
+			applyShown(label);
+		}
+		label.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
+	}
+
+	/**
+	 * Sets the properties which differ from their natural value when the label is shown
+	 */
+	void applyShown(View label) {
+	}
+
+	/**
+	 * @return new transition state for the label, started right after
+	 */
+	abstract Transition newTransition(View label);
+
+	private void start(View label, int duration, boolean show) {
+		Transition transition = getTransition(label);
+		// From 0 when hidden to 1 when shown
+		float startProgress;
+
+		if (transition.isRunning()) {
+			// Already heading to the requested state
+			if (transition.mShow == show) {
+				return;
+			}
+			// Interrupted: stop here and reverse from the current frame
+			FloatLabelMetrics.transitionCanceled(label);
+			transition.stop();
+			startProgress = transition.captureCurrent();
+
+		} else if ((label.getVisibility() == View.VISIBLE) == show) {
+			// Already settled in the requested state
+			return;
+
+		} else {
+			startProgress = show ? 0 : 1;
+			transition.captureSettled(show);
+		}
+
+		transition.mShow = show;
+
+		// Only play the part of the transition that is left
+		long fullDuration = duration >= 0 ? duration : DEFAULT_DURATION;
+		LabelLayers.begin(label, mLayerMode);
+		FloatLabelMetrics.transitionStarted(label, show);
+		transition.play((long) (fullDuration * Math.abs((show ? 1 : 0) - startProgress)), startProgress);
+	}
+
+	/**
+	 * @return the system animator duration scale, 0 when animations are turned off
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	@SuppressWarnings("deprecation")
+	static float getDurationScale(ContentResolver resolver) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+		}
+		return Settings.System.getFloat(resolver, Settings.System.ANIMATOR_DURATION_SCALE, 1);
+	}
+
+	private Transition getTransition(View label) {
+		// The tag may hold the state of another animator previously used on this label
+		Object tag = label.getTag(R.id.fl_label_transition);
+		Transition transition = tag instanceof Transition ? (Transition) tag : null;
+		if (transition == null || transition.mOwner != this) {
+			if (transition != null && transition.isRunning()) {
+				transition.stop();
+			}
+			transition = newTransition(label);
+			label.setTag(R.id.fl_label_transition, transition);
+		}
+		return transition;
+	}
+
+	/**
+	 * Per-label transition state
+	 */
+	abstract static class Transition {
+		final View mLabel;
+		final BaseLabelAnimator mOwner;
+
+		// State the transition is heading to
+		boolean mShow;
+
+		Transition(View label, BaseLabelAnimator owner) {
+			mLabel = label;
+			mOwner = owner;
+		}
+
+		abstract boolean isRunning();
+
+		/**
+		 * Stops the transition where it is, leaving the visibility to the caller
+		 */
+		abstract void stop();
+
+		/**
+		 * Takes the current property values as start values, after an interruption
+		 *
+		 * @return progress reached, from 0 (hidden) to 1 (shown)
+		 */
+		abstract float captureCurrent();
+
+		/**
+		 * Takes the hidden (when showing) or shown (when hiding) values as start values
+		 */
+		abstract void captureSettled(boolean show);
+
+		/**
+		 * Starts the transition to {@link #mShow} from the captured values
+		 *
+		 * @param startProgress progress of the captured values
+		 */
+		abstract void play(long duration, float startProgress);
+
+		/**
+		 * To call when the transition ends on its own
+		 */
+		void finish() {
+			mLabel.setVisibility(mShow ? View.VISIBLE : View.INVISIBLE);
+			LabelLayers.end(mLabel);
+		}
+	}
+
+	/**
+	 * Transition played by a single reused {@link ValueAnimator}, going from 0 to 1
+	 */
+	abstract static class AnimatorTransition extends Transition implements ValueAnimator.AnimatorUpdateListener {
+		final ValueAnimator mAnimator;
+
+		private final Animator.AnimatorListener mListener = new AnimatorListenerAdapter() {
+			@Override
+			public void onAnimationStart(Animator animation) {
+				mLabel.setVisibility(View.VISIBLE);
+			}
+
+			@Override
+			public void onAnimationEnd(Animator animation) {
+				if (!mStopping) {
+					finish();
+				}
+			}
+		};
+
+		private boolean mStopping;
+		private float mStartProgress;
+		private float mProgress;
+
+		AnimatorTransition(View label, BaseLabelAnimator owner, ValueAnimator animator) {
+			super(label, owner);
+			mAnimator = animator;
+			mAnimator.addUpdateListener(this);
+			mAnimator.addListener(mListener);
+		}
+
+		/**
+		 * Writes the properties of the frame, the animator may also set them itself
+		 *
+		 * @param fraction interpolated fraction of the part played, from the captured values
+		 */
+		abstract void onFrame(float fraction);
+
+		@Override
+		boolean isRunning() {
+			return mAnimator.isRunning();
+		}
+
+		@Override
+		void stop() {
+			mStopping = true;
+			mAnimator.cancel();
+			mStopping = false;
+		}
+
+		@Override
+		float captureCurrent() {
+			return mProgress;
+		}
+
+		@Override
+		void play(long duration, float startProgress) {
+			mStartProgress = startProgress;
+			mProgress = startProgress;
+			mAnimator.setDuration(duration);
+			mAnimator.start();
+		}
+
+		@Override
+		public void onAnimationUpdate(ValueAnimator animation) {
+			float fraction = animation.getAnimatedFraction();
+			mProgress = mStartProgress + ((mShow ? 1 : 0) - mStartProgress) * fraction;
+			onFrame(fraction);
+			FloatLabelMetrics.animationFrame(mLabel);
+		}
+	}
+}
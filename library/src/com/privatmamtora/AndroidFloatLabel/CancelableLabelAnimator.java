@@ -0,0 +1,18 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.view.View;
+
+/**
+ * {@link LabelAnimator} whose running transitions can be stopped, so that {@link FloatLabel}
+ * can snap a label to its final state (e.g. when state is restored or a recycled row is bound).
+ */
+public interface CancelableLabelAnimator extends LabelAnimator {
+
+	/**
+	 * Called when the transition running on the label, if any, must stop right away. The label
+	 * is then set to its final state by the caller.
+	 *
+	 * @param label TextView whose transition to cancel
+	 */
+	public void onCancelLabel(final View label);
+}
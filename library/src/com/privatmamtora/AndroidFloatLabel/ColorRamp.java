@@ -0,0 +1,82 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.content.res.ColorStateList;
+import android.graphics.Color;
+
+import java.util.WeakHashMap;
+
+/**
+ * Colors between the inactive and the activated color of a label {@link ColorStateList},
+ * precomputed once per ColorStateList so the focus color transition only picks a step on each
+ * frame. Every step is also kept as a single color ColorStateList, which the label can be given
+ * without allocating one per frame.
+ * <p/>
+ * Only used on the UI thread.
+ */
+final class ColorRamp {
+
+	static final int STEPS = 16;
+
+	private static final int[] INACTIVE_STATE = {android.R.attr.state_enabled};
+	private static final int[] ACTIVE_STATE = {android.R.attr.state_enabled, android.R.attr.state_activated};
+
+	// ColorStateList does not override equals, the label colors are shared by identity
+	private static final WeakHashMap<ColorStateList, ColorRamp> sCache = new WeakHashMap<ColorStateList, ColorRamp>();
+
+	// Null when activating the label does not change its color
+	private final ColorStateList[] mSteps;
+
+	private ColorRamp(ColorStateList colors) {
+		int from = colors.getColorForState(INACTIVE_STATE, colors.getDefaultColor());
+		int to = colors.getColorForState(ACTIVE_STATE, colors.getDefaultColor());
+
+		if (from == to) {
+			mSteps = null;
+			return;
+		}
+		mSteps = new ColorStateList[STEPS + 1];
+		for (int i = 0; i <= STEPS; i++) {
+			mSteps[i] = ColorStateList.valueOf(blend(from, to, (float) i / STEPS));
+		}
+	}
+
+	static ColorRamp get(ColorStateList colors) {
+		ColorRamp ramp = sCache.get(colors);
+		if (ramp == null) {
+			ramp = new ColorRamp(colors);
+			sCache.put(colors, ramp);
+		}
+		return ramp;
+	}
+
+	/**
+	 * @return false if the inactive and activated colors are the same
+	 */
+	boolean isAnimated() {
+		return mSteps != null;
+	}
+
+	/**
+	 * @param step from 0 (inactive) to {@link #STEPS} (activated)
+	 */
+	ColorStateList getStep(int step) {
+		return mSteps[step];
+	}
+
+	/**
+	 * Blends each ARGB channel, without the boxing of ArgbEvaluator
+	 */
+	static int blend(int from, int to, float fraction) {
+		if (fraction <= 0) {
+			return from;
+		} else if (fraction >= 1) {
+			return to;
+		}
+		final float inverse = 1 - fraction;
+		return Color.argb(
+				(int) (Color.alpha(from) * inverse + Color.alpha(to) * fraction),
+				(int) (Color.red(from) * inverse + Color.red(to) * fraction),
+				(int) (Color.green(from) * inverse + Color.green(to) * fraction),
+				(int) (Color.blue(from) * inverse + Color.blue(to) * fraction));
+	}
+}
@@ -4,59 +4,96 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
 import android.view.View;
 
 /**
  * Created by Krish on 8/21/2014.
  */
-public class DefaultLabelAnimator implements LabelAnimator {
-	@Override
-	public void onDisplayLabel(final View label, int duration) {
-		showLabel(label, duration, true);
-	}
+public class DefaultLabelAnimator extends BaseLabelAnimator {
 
 	@Override
-	public void onHideLabel(final View label, int duration) {
-		showLabel(label, duration, false);
+	Transition newTransition(View label) {
+		return new DefaultTransition(label, this);
 	}
 
-	private void showLabel(final View label, int duration, final boolean show) {
-		AnimatorSet animation = null;
-		String tranY = "translationY";
-		String a = "alpha";
+	/**
+	 * Builds a new AnimatorSet for every show/hide
+	 */
+	private static class DefaultTransition extends Transition {
+		// The one running animation, if any
+		private Animator mAnimation;
+		private float mStartAlpha;
+		private float mStartY;
 
-		int vis = label.getVisibility();
-		if (vis == View.VISIBLE && !show) {
-			animation = new AnimatorSet();
-			ObjectAnimator move = ObjectAnimator.ofFloat(label, tranY, 0, label.getHeight() / 8);
-			ObjectAnimator fade = ObjectAnimator.ofFloat(label, a, 1, 0);
-			animation.playTogether(move, fade);
+		DefaultTransition(View label, DefaultLabelAnimator owner) {
+			super(label, owner);
+		}
 
-		} else if (vis == View.INVISIBLE && show) {
-			animation = new AnimatorSet();
-			ObjectAnimator move = ObjectAnimator.ofFloat(label, tranY, label.getHeight() / 8, 0);
-			ObjectAnimator fade = ObjectAnimator.ofFloat(label, a, 0, 1);
-			animation.playTogether(move, fade);
+		@Override
+		boolean isRunning() {
+			return mAnimation != null;
+		}
+
+		@Override
+		void stop() {
+			Animator running = mAnimation;
+			mAnimation = null;
+			running.cancel();
+		}
+
+		@Override
+		float captureCurrent() {
+			mStartAlpha = mLabel.getAlpha();
+			mStartY = mLabel.getTranslationY();
+			return mStartAlpha;
 		}
 
-		if (animation != null) {
+		@Override
+		void captureSettled(boolean show) {
+			mStartAlpha = show ? 0 : 1;
+			mStartY = show ? mLabel.getHeight() / 8 : 0;
+		}
+
+		@Override
+		void play(long duration, float startProgress) {
+			String tranY = "translationY";
+			String a = "alpha";
+			final View label = mLabel;
+			float distance = label.getHeight() / 8;
+
+			AnimatorSet animation = new AnimatorSet();
+			ObjectAnimator move = ObjectAnimator.ofFloat(label, tranY, mStartY, mShow ? 0 : distance);
+			ObjectAnimator fade = ObjectAnimator.ofFloat(label, a, mStartAlpha, mShow ? 1 : 0);
+			animation.playTogether(move, fade);
+
+			if (FloatLabelMetrics.sListener != null) {
+				fade.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+					@Override
+					public void onAnimationUpdate(ValueAnimator animation) {
+						FloatLabelMetrics.animationFrame(label);
+					}
+				});
+			}
+
 			animation.addListener(new AnimatorListenerAdapter() {
 				@Override
 				public void onAnimationStart(Animator animation) {
-					//super.onAnimationStart(animation);
 					label.setVisibility(View.VISIBLE);
 				}
 
 				@Override
 				public void onAnimationEnd(Animator animation) {
-					//super.onAnimationEnd(animation);
-					label.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
+					// A reversed transition has already replaced this animation
+					if (mAnimation == animation) {
+						mAnimation = null;
+						finish();
+					}
 				}
 			});
 
-			if (duration >= 0) {
-				animation.setDuration(duration);
-			}
+			animation.setDuration(duration);
+			mAnimation = animation;
 			animation.start();
 		}
 	}
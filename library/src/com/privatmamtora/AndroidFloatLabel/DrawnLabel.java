@@ -0,0 +1,490 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.TypedValue;
+import android.view.Gravity;
+import android.view.View;
+
+/**
+ * Label that is never added to the view tree. The {@link FloatLabel} hosting it measures it,
+ * positions it and draws its cached text {@link Layout} from dispatchDraw, so it costs no extra
+ * child measure/layout pass.
+ * <p/>
+ * It is still a {@link View} so {@link LabelAnimator}s can animate its alpha, translation,
+ * rotation and scale exactly like they do a {@link android.widget.TextView} label. The setters
+ * mirror the TextView ones used by FloatLabel.
+ */
+class DrawnLabel extends View {
+
+	private final View mHost;
+
+	// Single line whose height does not depend on its text, e.g. the helper line: changing the
+	// text then only lays this line out again, not the host
+	private final boolean mFixedHeight;
+
+	private final TextPaint mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+	private final BoringLayout.Metrics mBoringMetrics = new BoringLayout.Metrics();
+	private final Paint.FontMetricsInt mFontMetrics = new Paint.FontMetricsInt();
+
+	private CharSequence mText = "";
+	private CharSequence mDisplayText = "";
+	private ColorStateList mTextColor = ColorStateList.valueOf(Color.BLACK);
+
+	private int mGravity = Gravity.LEFT;
+	private TextUtils.TruncateAt mEllipsize = null;
+	private boolean mSingleLine = false;
+	private boolean mHorizontallyScrolling = false;
+	private boolean mIncludePad = true;
+	private boolean mAllCaps = false;
+
+	// Cached text layout, rebuilt only when the text, its metrics or the available width change
+	private Layout mLayout;
+	private int mLayoutWidth = -1;
+
+	DrawnLabel(View host) {
+		this(host, false);
+	}
+
+	/**
+	 * @param fixedHeight true for a single line whose text changes do not request a layout of
+	 *                    the host, see {@link #measureLineHeight()}
+	 */
+	DrawnLabel(View host, boolean fixedHeight) {
+		super(host.getContext());
+		mHost = host;
+		mFixedHeight = fixedHeight;
+		mSingleLine = fixedHeight;
+		mPaint.density = getResources().getDisplayMetrics().density;
+		setRawTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14, getResources().getDisplayMetrics()));
+	}
+
+	/**
+	 * Text attributes
+	 */
+	public void setText(CharSequence text) {
+		mText = text == null ? "" : text;
+		updateDisplayText();
+	}
+
+	public CharSequence getText() {
+		return mText;
+	}
+
+	public void setAllCaps(boolean allCaps) {
+		mAllCaps = allCaps;
+		updateDisplayText();
+	}
+
+	private void updateDisplayText() {
+		mDisplayText = mAllCaps ? mText.toString().toUpperCase(getResources().getConfiguration().locale) : mText;
+		if (mFixedHeight) {
+			// Laid out again on the next draw, at the same width
+			mLayout = null;
+			mHost.invalidate();
+		} else {
+			invalidateLayout();
+		}
+	}
+
+	public void setTextColor(int color) {
+		setTextColor(ColorStateList.valueOf(color));
+	}
+
+	public void setTextColor(ColorStateList colors) {
+		if (colors == null) {
+			throw new NullPointerException();
+		}
+		mTextColor = colors;
+		mHost.invalidate();
+	}
+
+	public ColorStateList getTextColors() {
+		return mTextColor;
+	}
+
+	/**
+	 * Same unit as {@link android.widget.TextView#setTextSize(float)}, i.e. sp.
+	 */
+	public void setTextSize(float size) {
+		setRawTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, size, getResources().getDisplayMetrics()));
+	}
+
+	public float getTextSize() {
+		return mPaint.getTextSize();
+	}
+
+	TextPaint getPaint() {
+		return mPaint;
+	}
+
+	private void setRawTextSize(float size) {
+		if (size != mPaint.getTextSize()) {
+			mPaint.setTextSize(size);
+			invalidateLayout();
+		}
+	}
+
+	public void setTypeface(Typeface tf) {
+		if (mPaint.getTypeface() != tf) {
+			mPaint.setTypeface(tf);
+			invalidateLayout();
+		}
+	}
+
+	/**
+	 * Same behaviour as {@link android.widget.TextView#setTypeface(Typeface, int)}: fakes the
+	 * bold/italic parts of the style the typeface does not provide.
+	 */
+	public void setTypeface(Typeface tf, int style) {
+		applyTypeface(tf, style);
+		invalidateLayout();
+	}
+
+	private void applyTypeface(Typeface tf, int style) {
+		if (style > 0) {
+			if (tf == null) {
+				tf = Typeface.defaultFromStyle(style);
+			} else {
+				tf = Typeface.create(tf, style);
+			}
+
+			mPaint.setTypeface(tf);
+			int typefaceStyle = tf != null ? tf.getStyle() : 0;
+			int need = style & ~typefaceStyle;
+			mPaint.setFakeBoldText((need & Typeface.BOLD) != 0);
+			mPaint.setTextSkewX((need & Typeface.ITALIC) != 0 ? -0.25f : 0);
+		} else {
+			mPaint.setFakeBoldText(false);
+			mPaint.setTextSkewX(0);
+			mPaint.setTypeface(tf);
+		}
+	}
+
+	/**
+	 * Applies every attribute of the style, then lays the text out again only once
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	void setStyle(LabelStyle style) {
+		Context context = getContext();
+
+		mTextColor = style.getTextColor(context);
+		mGravity = style.mGravity;
+		mEllipsize = style.mEllipsize;
+		mHorizontallyScrolling = style.mScrollHorizontally;
+		mIncludePad = style.mIncludeFontPadding;
+		mAllCaps = style.mAllCaps;
+
+		mPaint.setTextScaleX(style.mTextScaleX);
+		mPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, style.mTextSize, getResources().getDisplayMetrics()));
+		applyTypeface(style.getTypeface(context), style.getTypefaceStyle(context));
+		mPaint.setShadowLayer(style.mShadowRadius, style.mShadowDx, style.mShadowDy, style.mShadowColor);
+
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			super.setPaddingRelative(style.mPaddingLeft, style.mPaddingTop, style.mPaddingRight, style.mPaddingBottom);
+		} else {
+			super.setPadding(style.mPaddingLeft, style.mPaddingTop, style.mPaddingRight, style.mPaddingBottom);
+		}
+
+		updateDisplayText();
+	}
+
+	/**
+	 * Applies the attributes of a TextAppearance style which are set, like
+	 * {@link android.widget.TextView#setTextAppearance(Context, int)}.
+	 */
+	public void setTextAppearance(Context context, int styleResourceId) {
+		final TypedArray appearance = context.obtainStyledAttributes(styleResourceId, R.styleable.TextAppearance);
+
+		ColorStateList color = appearance.getColorStateList(R.styleable.TextAppearance_android_textColor);
+		if (color != null) {
+			setTextColor(color);
+		}
+
+		int size = appearance.getDimensionPixelSize(R.styleable.TextAppearance_android_textSize, 0);
+		if (size != 0) {
+			setRawTextSize(size);
+		}
+
+		int typefaceIndex = appearance.getInt(R.styleable.TextAppearance_android_typeface, -1);
+		String familyName = appearance.getString(R.styleable.TextAppearance_android_fontFamily);
+		int styleIndex = appearance.getInt(R.styleable.TextAppearance_android_textStyle, -1);
+		Typeface tf = null;
+		if (familyName != null) {
+			tf = TypefaceCache.get(familyName, styleIndex);
+		}
+		if (tf == null) {
+			if (typefaceIndex == 1) {
+				tf = Typeface.SANS_SERIF;
+			} else if (typefaceIndex == 2) {
+				tf = Typeface.SERIF;
+			} else if (typefaceIndex == 3) {
+				tf = Typeface.MONOSPACE;
+			}
+		}
+		setTypeface(tf, styleIndex);
+
+		if (appearance.hasValue(R.styleable.TextAppearance_android_textAllCaps)) {
+			setAllCaps(appearance.getBoolean(R.styleable.TextAppearance_android_textAllCaps, false));
+		}
+
+		int shadowColor = appearance.getInt(R.styleable.TextAppearance_android_shadowColor, 0);
+		if (shadowColor != 0) {
+			setShadowLayer(appearance.getFloat(R.styleable.TextAppearance_android_shadowRadius, 0),
+					appearance.getFloat(R.styleable.TextAppearance_android_shadowDx, 0),
+					appearance.getFloat(R.styleable.TextAppearance_android_shadowDy, 0), shadowColor);
+		}
+
+		appearance.recycle();
+	}
+
+	public void setShadowLayer(float radius, float dx, float dy, int color) {
+		mPaint.setShadowLayer(radius, dx, dy, color);
+		mHost.invalidate();
+	}
+
+	public void setTextScaleX(float size) {
+		if (size != mPaint.getTextScaleX()) {
+			mPaint.setTextScaleX(size);
+			invalidateLayout();
+		}
+	}
+
+	public void setGravity(int gravity) {
+		mGravity = gravity;
+		invalidateLayout();
+	}
+
+	public int getGravity() {
+		return mGravity;
+	}
+
+	public void setEllipsize(TextUtils.TruncateAt where) {
+		mEllipsize = where;
+		invalidateLayout();
+	}
+
+	public void setSingleLine(boolean singleLine) {
+		mSingleLine = singleLine || mFixedHeight;
+		invalidateLayout();
+	}
+
+	public void setHorizontallyScrolling(boolean whether) {
+		mHorizontallyScrolling = whether;
+		invalidateLayout();
+	}
+
+	public void setIncludeFontPadding(boolean includepad) {
+		mIncludePad = includepad;
+		invalidateLayout();
+	}
+
+	@Override
+	public void setPadding(int left, int top, int right, int bottom) {
+		super.setPadding(left, top, right, bottom);
+		invalidateLayout();
+	}
+
+	@Override
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	public void setPaddingRelative(int start, int top, int end, int bottom) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			super.setPaddingRelative(start, top, end, bottom);
+		} else {
+			// Left to right only before API 17
+			super.setPadding(start, top, end, bottom);
+		}
+		invalidateLayout();
+	}
+
+	/**
+	 * Measuring and drawing, called by the host
+	 */
+
+	/**
+	 * @param width the width available to the label, including its padding
+	 * @return the height of the label, including its padding
+	 */
+	int measureHeight(int width) {
+		ensureLayout(width - getPaddingLeft() - getPaddingRight());
+		return mLayout.getHeight() + getPaddingTop() + getPaddingBottom();
+	}
+
+	/**
+	 * @return the height of one line of text, including the padding, without laying the text out
+	 */
+	int measureLineHeight() {
+		mPaint.getFontMetricsInt(mFontMetrics);
+		int height = mIncludePad ? mFontMetrics.bottom - mFontMetrics.top : mFontMetrics.descent - mFontMetrics.ascent;
+		return height + getPaddingTop() + getPaddingBottom();
+	}
+
+	/**
+	 * @return the baseline of the first line from the top of the label, including the padding
+	 */
+	int getLineBaseline() {
+		mPaint.getFontMetricsInt(mFontMetrics);
+		return getPaddingTop() - (mIncludePad ? mFontMetrics.top : mFontMetrics.ascent);
+	}
+
+	void drawLabel(Canvas canvas) {
+		if (getVisibility() != VISIBLE) {
+			return;
+		}
+		if (mLayout == null) {
+			// Only the text changed since the last measure
+			if (mLayoutWidth < 0) {
+				return;
+			}
+			ensureLayout(mLayoutWidth);
+		}
+
+		int color = mTextColor.getColorForState(getDrawableState(), mTextColor.getDefaultColor());
+		int alpha = (int) (Color.alpha(color) * getAlpha());
+		if (alpha <= 0) {
+			return;
+		}
+		mPaint.setColor(color);
+		mPaint.setAlpha(alpha);
+		mPaint.drawableState = getDrawableState();
+
+		int saveCount = canvas.save();
+		canvas.translate(getLeft(), getTop());
+		Matrix matrix = getMatrix();
+		if (!matrix.isIdentity()) {
+			canvas.concat(matrix);
+		}
+		canvas.translate(getPaddingLeft(), getPaddingTop());
+		mLayout.draw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	private void invalidateLayout() {
+		mLayout = null;
+		mHost.requestLayout();
+		mHost.invalidate();
+	}
+
+	private void ensureLayout(int width) {
+		width = Math.max(width, 0);
+		if (mLayout != null && width == mLayoutWidth) {
+			return;
+		}
+		mLayoutWidth = width;
+
+		Layout.Alignment alignment = getAlignment();
+		CharSequence text = mDisplayText;
+
+		if (mSingleLine || mHorizontallyScrolling) {
+			BoringLayout.Metrics boring = BoringLayout.isBoring(text, mPaint, mBoringMetrics);
+			if (boring != null) {
+				if (mLayout instanceof BoringLayout) {
+					mLayout = ((BoringLayout) mLayout).replaceOrMake(text, mPaint, width, alignment, 1, 0,
+							boring, mIncludePad, mEllipsize, width);
+				} else {
+					mLayout = BoringLayout.make(text, mPaint, width, alignment, 1, 0,
+							boring, mIncludePad, mEllipsize, width);
+				}
+				return;
+			}
+
+			// Not boring (e.g. bidi text), keep it on one line by ellipsizing it up front
+			if (mEllipsize != null) {
+				text = TextUtils.ellipsize(text, mPaint, width, mEllipsize);
+			}
+		}
+
+		mLayout = new StaticLayout(text, mPaint, width, alignment, 1, 0, mIncludePad);
+	}
+
+	private Layout.Alignment getAlignment() {
+		switch (mGravity & Gravity.RELATIVE_HORIZONTAL_GRAVITY_MASK) {
+			case Gravity.CENTER_HORIZONTAL:
+				return Layout.Alignment.ALIGN_CENTER;
+
+			case Gravity.RIGHT:
+			case Gravity.END:
+				return Layout.Alignment.ALIGN_OPPOSITE;
+
+			default:
+				return Layout.Alignment.ALIGN_NORMAL;
+		}
+	}
+
+	/**
+	 * The label has no parent to invalidate, so every property a LabelAnimator may animate
+	 * redraws the host instead.
+	 */
+	@Override
+	public void setVisibility(int visibility) {
+		super.setVisibility(visibility);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setAlpha(float alpha) {
+		super.setAlpha(alpha);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setTranslationX(float translationX) {
+		super.setTranslationX(translationX);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setTranslationY(float translationY) {
+		super.setTranslationY(translationY);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setRotation(float rotation) {
+		super.setRotation(rotation);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setRotationX(float rotationX) {
+		super.setRotationX(rotationX);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setRotationY(float rotationY) {
+		super.setRotationY(rotationY);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setScaleX(float scaleX) {
+		super.setScaleX(scaleX);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void setScaleY(float scaleY) {
+		super.setScaleY(scaleY);
+		mHost.invalidate();
+	}
+
+	@Override
+	protected void drawableStateChanged() {
+		super.drawableStateChanged();
+		mHost.invalidate();
+	}
+}
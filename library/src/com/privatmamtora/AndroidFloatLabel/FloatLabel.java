@@ -15,18 +15,25 @@
  */
 package com.privatmamtora.AndroidFloatLabel;
 
+import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Canvas;
 import android.graphics.Typeface;
+import android.os.AsyncTask;
 import android.os.Build;
-import android.os.Bundle;
+import android.os.Looper;
+import android.os.Parcel;
 import android.os.Parcelable;
 import android.text.Editable;
+import android.text.TextPaint;
 import android.text.TextUtils;
 import android.text.TextWatcher;
 import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
@@ -34,6 +41,8 @@ import android.widget.EditText;
 import android.widget.FrameLayout;
 import android.widget.TextView;
 
+import java.util.concurrent.Executor;
+
 /**
  * Layout which an {@link android.widget.EditText} to show a floating label when the hint is hidden
  * due to the user inputting text.
@@ -56,6 +65,7 @@ import android.widget.TextView;
  * R.styleable#FloatLabel_flTypeface
  * R.styleable#FloatLabel_flTextStyle
  * R.styleable#FloatLabel_flFontFamily
+ * R.styleable#FloatLabel_flFontAsset
  * R.styleable#FloatLabel_flTextAllCaps
  * R.styleable#FloatLabel_flShadowColor
  * R.styleable#FloatLabel_flShadowDx
@@ -76,56 +86,173 @@ import android.widget.TextView;
  * R.styleable#FloatLabel_flPaddingBottom
  * R.styleable#FloatLabel_flGapSize
  * R.styleable#FloatLabel_flAnimationDuration
+ * R.styleable#FloatLabel_flDrawLabel
+ * R.styleable#FloatLabel_flLabelStyle
+ * R.styleable#FloatLabel_flLabelTransition
+ * R.styleable#FloatLabel_flMorphHint
+ * R.styleable#FloatLabel_flHelperStyle
+ * R.styleable#FloatLabel_flHelperText
+ * R.styleable#FloatLabel_flErrorColor
+ * R.styleable#FloatLabel_flCounterMaxLength
  */
 public class FloatLabel extends FrameLayout {
 
-	private static final String SAVED_SUPER_STATE = "SAVED_SUPER_STATE";
-	private static final String SAVED_LABEL_VISIBILITY = "SAVED_LABEL_VISIBILITY";
-	private static final String SAVED_HINT = "SAVED_HINT";
-
-	// Enum for the "typeface" XML parameter.
-	private static final int SANS = 1;
-	private static final int SERIF = 2;
-	private static final int MONOSPACE = 3;
-
-	private static final int DEFAULT_TEXT_SIZE = 14;
-
 	private EditText mEditText;
 	private TextView mLabel;
 
-	// Text Appearance
-	//
-	private ColorStateList mLabelTextColor = null;
-	private int mLabelTextSize = DEFAULT_TEXT_SIZE;
-	private int mLabelTypeface = -1;
-	private String mLabelFontFamily = null;
-	private int mLabelTextStyle = -1;
-	private boolean mLabelAllCaps = false;
-	private int mLabelShadowColor = 0;
-	private float mLabelShadowDx = 0;
-	private float mLabelShadowDy = 0;
-	private float mLabelShadowRadius = 0;
-
-	private int mLabelPadding = 0;
-	private int mLabelPaddingLeft = 0;
-	private int mLabelPaddingRight = 0;
-	private int mLabelPaddingTop = 0;
-	private int mLabelPaddingBottom = 0;
-
-	private int mLabelGravity = 0x03;
-	private CharSequence mLabelText = "";
-	private int mLabelEllipsize = -1;
+	// Used instead of mLabel when the label is drawn by FloatLabel itself (flDrawLabel)
+	private DrawnLabel mDrawnLabel;
+	private boolean mDrawLabel = false;
+
+	// Draws the hint morphing into the label in place of the label transition (flMorphHint)
+	private HintMorph mHintMorph;
+
+	// Style the label was last set up with
+	private LabelStyle mLabelStyle = LabelStyle.DEFAULT;
+
+	// Helper/error line drawn below the EditText, created once a helper style, a helper text or
+	// an error is set. Its height is reserved from then on, so its text changes need no layout
+	private DrawnLabel mHelperLine;
+	private LabelStyle mHelperStyle = LabelStyle.DEFAULT;
+	private ColorStateList mHelperColors;
+	private CharSequence mHelperText;
+	private CharSequence mError;
+	private ColorStateList mErrorColors;
+	private boolean mHelperShown = false;
+
+	// "n / max" counter at the end of the helper line. The length follows the deltas of
+	// onTextChanged and is formatted into a reused buffer, null suffix when there is no counter
+	private int mCounterMax;
+	private int mCounterLength;
+	private char[] mCounterSuffix;
+	private char[] mCounterChars;
+	private int mCounterCharCount;
+	// Digits the counter area was measured for
+	private int mCounterDigits;
+	private boolean mCounterOverflow;
+	// Label colors replaced by the error colors while the text is over the limit
+	private ColorStateList mLabelColorsBeforeOverflow;
+	// Area redrawn when the count changes
+	private int mCounterLeft;
+	private int mCounterTop;
+	private int mCounterRight;
+	private int mCounterBottom;
+	private int mCounterBaseline;
 
 	private int mLabelGap = 0;
 	private int mLabelAnimationDuration = -1;
 
+	// The label text is expensive to draw, the animators may then put it on a hardware layer
+	private boolean mLabelShadow;
+	private boolean mLabelCustomTypeface;
+
+	// Space reserved above the EditText for the label
+	private int mLabelOffset;
+	private boolean mLabelOffsetValid;
+
 	private CharSequence mHint;
 
+	// Whether the label is (or is animating towards being) shown, i.e. the EditText is not empty
+	private boolean mLabelShown = false;
+
+	// State last handed to the LabelAnimator. Text changes are coalesced until the next frame,
+	// where only a change of the final state is animated
+	private boolean mLabelAnimatedShown = false;
+	private boolean mLabelTransitionPending = false;
+	private final Runnable mLabelTransition = new Runnable() {
+		@Override
+		public void run() {
+			mLabelTransitionPending = false;
+			if (mLabelShown == mLabelAnimatedShown) {
+				// Changed back within the frame
+				if (hasLabel()) {
+					FloatLabelMetrics.transitionSkipped(getLabelView(), mLabelShown);
+				}
+				return;
+			}
+			mLabelAnimatedShown = mLabelShown;
+
+			if (mHintMorph != null) {
+				mHintMorph.animateTo(getLabelView(), mLabelShown, mLabelAnimationDuration);
+			} else if (mLabelShown) {
+				mLabelAnimator.onDisplayLabel(getLabelView(), mLabelAnimationDuration);
+			} else {
+				mLabelAnimator.onHideLabel(getLabelView(), mLabelAnimationDuration);
+			}
+		}
+	};
+
+	// Validation: input is debounced, then the validators run on the executor against a snapshot
+	// of the text. Each new input moves the generation on, making older runs stale
+	private static final int DEFAULT_VALIDATION_DELAY = 300;
+	private static final TextValidator[] NO_VALIDATORS = new TextValidator[0];
+	private volatile TextValidator[] mValidators = NO_VALIDATORS;
+	private Executor mValidationExecutor = AsyncTask.THREAD_POOL_EXECUTOR;
+	private int mValidationDelay = DEFAULT_VALIDATION_DELAY;
+	private volatile int mValidationGeneration;
+	private OnValidationListener mValidationListener;
+	private final Runnable mValidationStart = new Runnable() {
+		@Override
+		public void run() {
+			startValidation();
+		}
+	};
+
+	// Set while the view hierarchy state is restored or a row is bound without animation, the
+	// label is snapped afterwards
+	private boolean mSuppressTransitions = false;
+
+	// Focus color transition of the label: steps of a ColorRamp handed to the label in turn,
+	// its own colors are given back once the transition ends
+	private static final int DEFAULT_ACTIVATION_DURATION = 150;
+	private int mActivationDuration = DEFAULT_ACTIVATION_DURATION;
+	private ValueAnimator mActivationAnimator;
+	private ColorStateList mActivationColors;
+	private ColorRamp mActivationRamp;
+	private int mActivationFrom;
+	private int mActivationTo;
+	private int mActivationStep;
+
+	// Installed on the EditText once and kept for the lifetime of the FloatLabel
+	private final EditTextWatcher mTextWatcher = new EditTextWatcher();
+	private final OnFocusChangeListener mFocusListener = new OnFocusChangeListener() {
+		@Override
+		public void onFocusChange(View view, boolean focused) {
+			// A label not created yet picks the focus up when it is
+			if (hasLabel()) {
+				animateLabelActivation(focused);
+			}
+			if (mHelperLine != null) {
+				mHelperLine.setActivated(focused);
+			}
+			if (mHintMorph != null) {
+				// Picks up the focused colors
+				invalidate();
+			}
+			if (focused && mLabelAnimator instanceof FrameBudgetLabelAnimator) {
+				// The keyboard opens now, before the first transition
+				((FrameBudgetLabelAnimator) mLabelAnimator).watchFrames(FloatLabel.this);
+			}
+		}
+	};
+
 	private Context mContext;
 
 	public FloatLabel(Context context) {
+		this(context, LabelStyle.DEFAULT);
+	}
+
+	/**
+	 * Creates a FloatLabel in code from an already resolved style, no attribute is parsed. Only
+	 * reached through {@link Builder}, so that FloatLabel(context, null) keeps meaning no
+	 * attributes.
+	 *
+	 * @param style style of the label, can be shared with other FloatLabels
+	 */
+	private FloatLabel(Context context, LabelStyle style) {
 		super(context);
 		mContext = context;
+		setupLabel(style);
 	}
 
 	public FloatLabel(Context context, AttributeSet attrs) {
@@ -142,205 +269,303 @@ public class FloatLabel extends FrameLayout {
 	}
 
 	private void setupLabel(AttributeSet attrs) {
-		mLabel = new TextView(mContext);
+		FloatLabelMetrics.Listener metrics = FloatLabelMetrics.sListener;
+		long start = metrics != null ? System.nanoTime() : 0;
 
-		setupAttributes(attrs);
+		setupLabel(resolveLabelStyle(attrs));
 
-		//Default Label is Single Line
-		setLabelSingleLine(true);
+		if (metrics != null) {
+			metrics.onInflate(this, System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Only keeps the style: the label itself is created by {@link #ensureLabel()} the first time
+	 * it is needed, so fields which are never filled in never allocate one.
+	 */
+	private void setupLabel(LabelStyle style) {
+		mDrawLabel = style.mDrawLabel;
+		setLabelStyle(style);
+	}
 
-		setLabelGravity(mLabelGravity);
+	boolean hasLabel() {
+		return mLabel != null || mDrawnLabel != null;
+	}
 
-		if (mLabelEllipsize < 0) {
-			mLabelEllipsize = 3; // END
+	/**
+	 * Creates and styles the label, if not done yet
+	 */
+	private void ensureLabel() {
+		if (hasLabel()) {
+			return;
 		}
 
-		if (mLabelEllipsize == 1) {
-			setLabelEllipsize(TextUtils.TruncateAt.START);
-		} else if (mLabelEllipsize == 2) {
-			setLabelEllipsize(TextUtils.TruncateAt.MIDDLE);
-		} else if (mLabelEllipsize == 3) {
-			setLabelEllipsize(TextUtils.TruncateAt.END);
+		if (mDrawLabel) {
+			mDrawnLabel = new DrawnLabel(this);
+		} else {
+			mLabel = new TextView(mContext);
 		}
+		View label = getLabelView();
 
-		setLabelColor(mLabelTextColor != null ? mLabelTextColor : getResources().getColorStateList(R.color.floatlabel_default));
-		setLabelSize(mLabelTextSize);
-		setLabelAllCaps(mLabelAllCaps);
+		//Default Label is Single Line
+		setLabelSingleLine(true);
 
-		setTypefaceFromAttrs(mLabelFontFamily, mLabelTypeface, mLabelTextStyle);
+		applyLabelStyle(mLabelStyle);
+		if (mHint != null) {
+			setLabelText(mHint);
+		}
 
-		if (mLabelShadowColor != 0) {
-			setLabelShadowLayer(mLabelShadowRadius, mLabelShadowDx, mLabelShadowDy, mLabelShadowColor);
+		label.setVisibility(INVISIBLE);
+		if (mEditText != null) {
+			label.setActivated(mEditText.hasFocus());
 		}
 
-		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-			setLabelPaddingRelative(mLabelPaddingLeft, mLabelPaddingTop, mLabelPaddingRight, mLabelPaddingBottom);
-		} else {
-			setLabelPadding(mLabelPaddingLeft, mLabelPaddingTop, mLabelPaddingRight, mLabelPaddingBottom);
+		if (mLabel != null) {
+			addView(mLabel, 0, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT));
 		}
 
-		setLabelVisibility(INVISIBLE);
-		addView(mLabel, LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+		// Already laid out: size the label right away, so that an animation started now sees its
+		// real height rather than waiting for the next layout pass
+		if (getWidth() > 0) {
+			final int width = getWidth() - getPaddingLeft() - getPaddingRight();
+			final int height;
+			if (mLabel != null) {
+				mLabel.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY),
+						MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+				height = mLabel.getMeasuredHeight();
+			} else {
+				height = mDrawnLabel.measureHeight(width);
+			}
+			label.layout(getPaddingLeft(), getPaddingTop(), getPaddingLeft() + width, getPaddingTop() + height);
+		}
 	}
 
-	private void setupAttributes(AttributeSet attrs) {
-
+	private LabelStyle resolveLabelStyle(AttributeSet attrs) {
 		final TypedArray a = mContext.obtainStyledAttributes(attrs, R.styleable.FloatLabel);
 
-		int styleResId = a.getResourceId(R.styleable.FloatLabel_flTextAppearance, -1);
-		setupTextAppearanceAttr(styleResId);
+		LabelStyle style = LabelStyle.DEFAULT;
+		int attrCount = a.getIndexCount();
+
+		int labelStyleResId = a.getResourceId(R.styleable.FloatLabel_flLabelStyle, 0);
+		if (labelStyleResId != 0) {
+			style = LabelStyle.fromResource(mContext, labelStyleResId);
+			attrCount--;
+		}
 
-		setupCustomAttr(a);
+		// The shared style is used as is, unless attributes are also set on this instance
+		if (attrCount > 0) {
+			style = new LabelStyle.Builder(style).applyAttributes(mContext, a).build();
+		}
 
 		a.recycle();
+		return style;
 	}
 
-	private void setupTextAppearanceAttr(int styleResourceId) {
-		if (styleResourceId != -1) {
-			final TypedArray appearance = mContext.obtainStyledAttributes(styleResourceId, R.styleable.TextAppearance);
-
-			mLabelTextColor = appearance.getColorStateList(R.styleable.TextAppearance_android_textColor);
-			mLabelTextSize = appearance.getDimensionPixelSize(R.styleable.TextAppearance_android_textSize, mLabelTextSize);
-			mLabelTypeface = appearance.getInt(R.styleable.TextAppearance_android_typeface, mLabelTypeface);
-			mLabelFontFamily = appearance.getString(R.styleable.TextAppearance_android_fontFamily);
-			mLabelTextStyle = appearance.getInt(R.styleable.TextAppearance_android_textStyle, mLabelTextStyle);
-			mLabelAllCaps = appearance.getBoolean(R.styleable.TextAppearance_android_textAllCaps, mLabelAllCaps);
-			mLabelShadowColor = appearance.getInt(R.styleable.TextAppearance_android_shadowColor, mLabelShadowColor);
-			mLabelShadowDx = appearance.getFloat(R.styleable.TextAppearance_android_shadowDx, mLabelShadowDx);
-			mLabelShadowDy = appearance.getFloat(R.styleable.TextAppearance_android_shadowDy, mLabelShadowDy);
-			mLabelShadowRadius = appearance.getFloat(R.styleable.TextAppearance_android_shadowRadius, mLabelShadowRadius);
-
-			appearance.recycle();
+	/**
+	 * Applies all the attributes of a {@link LabelStyle} to the label in one pass.
+	 * The flDrawLabel value of the style is only used when the FloatLabel is created. The
+	 * flLabelTransition of the style replaces the label animator, unless the FloatLabel was added
+	 * to a {@link FloatLabelGroup}, which keeps driving its transitions.
+	 *
+	 * @param style style to apply, can be shared with other FloatLabels
+	 */
+	public void setLabelStyle(LabelStyle style) {
+		mLabelStyle = style;
+		mLabelGap = style.mGap;
+		mLabelAnimationDuration = style.mAnimationDuration;
+
+		if (style.mTransition != null && !(mLabelAnimator instanceof FloatLabelGroup)
+				&& !(mLabelAnimator instanceof SpecLabelAnimator
+				&& ((SpecLabelAnimator) mLabelAnimator).getSpec() == style.mTransition)) {
+			setLabelAnimator(new SpecLabelAnimator(style.mTransition));
 		}
-	}
-
-	private void setupCustomAttr(TypedArray a) {
-		int n = a.getIndexCount();
-		for (int i = 0; i < n; i++) {
-			int attr = a.getIndex(i);
-
-			//TextAppearance Attributes
-			if (attr == R.styleable.FloatLabel_flTextColor) {
-				mLabelTextColor = a.getColorStateList(attr);
-
-			} else if (attr == R.styleable.FloatLabel_flTextSize) {
-				mLabelTextSize = a.getDimensionPixelSize(attr, mLabelTextSize);
-
-			} else if (attr == R.styleable.FloatLabel_flTypeface) {
-				mLabelTypeface = a.getInt(attr, mLabelTypeface);
-
-			} else if (attr == R.styleable.FloatLabel_flTextStyle) {
-				mLabelTextStyle = a.getInt(attr, mLabelTextStyle);
 
-			} else if (attr == R.styleable.FloatLabel_flFontFamily) {
-				mLabelFontFamily = a.getString(attr);
-
-			} else if (attr == R.styleable.FloatLabel_flTextAllCaps) {
-				mLabelAllCaps = a.getBoolean(attr, mLabelAllCaps);
+		if (hasLabel()) {
+			applyLabelStyle(style);
+		}
 
-			} else if (attr == R.styleable.FloatLabel_flShadowColor) {
-				mLabelShadowColor = a.getInt(attr, mLabelShadowColor);
+		invalidateLabelOffset();
+		setMorphHint(style.mMorphHint);
 
-			} else if (attr == R.styleable.FloatLabel_flShadowDx) {
-				mLabelShadowDx = a.getFloat(attr, mLabelShadowDx);
+		mErrorColors = null;
+		if (style.mHelperStyle != null) {
+			setHelperStyle(style.mHelperStyle);
+		}
+		if (!TextUtils.isEmpty(style.mHelperText)) {
+			setHelperText(style.mHelperText);
+		} else if (mHelperLine != null) {
+			updateHelperLine();
+		}
+		if (style.mCounterMaxLength > 0) {
+			setCounterMaxLength(style.mCounterMaxLength);
+		}
 
-			} else if (attr == R.styleable.FloatLabel_flShadowDy) {
-				mLabelShadowDy = a.getFloat(attr, mLabelShadowDy);
+		if (mEditText != null && !TextUtils.isEmpty(style.mText)) {
+			mHint = style.mText;
+			if (hasLabel()) {
+				setLabelText(mHint);
+			}
+		}
+	}
 
-			} else if (attr == R.styleable.FloatLabel_flShadowRadius) {
-				mLabelShadowRadius = a.getFloat(attr, mLabelShadowRadius);
+	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+	private void applyLabelStyle(LabelStyle style) {
+		endLabelActivation();
+		mLabelShadow = style.mShadowRadius > 0;
+		mLabelCustomTypeface = style.mCustomTypeface != null || style.mFontAsset != null;
+		updateLabelExpensive();
+
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setStyle(style);
+		} else {
+			mLabel.setGravity(style.mGravity);
+			if (style.mScrollHorizontally) {
+				// Only ever turned on, setSingleLine() already turns it on for single line labels
+				mLabel.setHorizontallyScrolling(true);
+			}
+			mLabel.setIncludeFontPadding(style.mIncludeFontPadding);
+			mLabel.setTextScaleX(style.mTextScaleX);
+			mLabel.setEllipsize(style.mEllipsize);
+			mLabel.setTextColor(style.getTextColor(mContext));
+			mLabel.setTextSize(style.mTextSize);
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+				mLabel.setAllCaps(style.mAllCaps);
+			}
+			mLabel.setTypeface(style.getTypeface(mContext), style.getTypefaceStyle(mContext));
+			mLabel.setShadowLayer(style.mShadowRadius, style.mShadowDx, style.mShadowDy, style.mShadowColor);
 
-				//TextView Attributes
-			} else if (attr == R.styleable.FloatLabel_flGravity) {
-				mLabelGravity = a.getInt(attr, 0x03);
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+				setLabelPaddingRelative(style.mPaddingLeft, style.mPaddingTop, style.mPaddingRight, style.mPaddingBottom);
+			} else {
+				setLabelPadding(style.mPaddingLeft, style.mPaddingTop, style.mPaddingRight, style.mPaddingBottom);
+			}
+		}
+		applyOverflowColors();
+	}
 
-			} else if (attr == R.styleable.FloatLabel_flText) {
-				mLabelText = a.getText(attr);
+	/**
+	 * @return the style the label was last set up with. Changes made through the other
+	 * setLabel... methods are not reflected in it.
+	 */
+	public final LabelStyle getLabelStyle() {
+		return mLabelStyle;
+	}
 
-			} else if (attr == R.styleable.FloatLabel_flScrollHorizontally) {
-				if (a.getBoolean(attr, false)) {
-					setLabelHorizontallyScrolling(true);
-				}
+	@Override
+	protected Parcelable onSaveInstanceState() {
+		SavedState ss = new SavedState(super.onSaveInstanceState());
+		ss.mLabelShown = mLabelShown;
+		// The default hint is set up again on inflation, only a changed one needs saving
+		ss.mHint = TextUtils.equals(mHint, getDefaultHint()) ? null : mHint;
+		return ss;
+	}
 
-			} else if (attr == R.styleable.FloatLabel_flEllipsize) {
-				mLabelEllipsize = a.getInt(attr, -1);
+	@Override
+	protected void onRestoreInstanceState(Parcelable state) {
+		if (!(state instanceof SavedState)) {
+			super.onRestoreInstanceState(state);
+			return;
+		}
 
-			} else if (attr == R.styleable.FloatLabel_flIncludeFontPadding) {
-				if (!a.getBoolean(attr, true)) {
-					setLabelIncludeFontPadding(false);
-				}
+		SavedState ss = (SavedState) state;
+		super.onRestoreInstanceState(ss.getSuperState());
 
-			} else if (attr == R.styleable.FloatLabel_flTextScaleX) {
-				setLabelTextScaleX(a.getFloat(attr, 1.0f));
-
-				//View Attributes
-			} else if (attr == R.styleable.FloatLabel_flPadding) {
-				mLabelPadding = a.getDimensionPixelSize(attr, 0);
-			} else if (attr == R.styleable.FloatLabel_flPaddingLeft) {
-				mLabelPaddingLeft = a.getDimensionPixelSize(attr, mLabelPadding);
-			} else if (attr == R.styleable.FloatLabel_flPaddingRight) {
-				mLabelPaddingRight = a.getDimensionPixelSize(attr, mLabelPadding);
-			} else if (attr == R.styleable.FloatLabel_flPaddingTop) {
-				mLabelPaddingTop = a.getDimensionPixelSize(attr, mLabelPadding);
-			} else if (attr == R.styleable.FloatLabel_flPaddingBottom) {
-				mLabelPaddingBottom = a.getDimensionPixelSize(attr, mLabelPadding);
-			} else if (attr == R.styleable.FloatLabel_flGapSize) {
-				mLabelGap = a.getDimensionPixelSize(attr, 0);
-			} else if (attr == R.styleable.FloatLabel_flAnimationDuration) {
-				mLabelAnimationDuration = a.getInt(attr, -1);
-			}
-		}
-	}
-
-	private void setTypefaceFromAttrs(String familyName, int typefaceIndex, int styleIndex) {
-		Typeface tf = null;
-		if (familyName != null) {
-			tf = Typeface.create(familyName, styleIndex);
-			if (tf != null) {
-				setLabelTypeface(tf);
-				return;
+		if (ss.mHint != null) {
+			mHint = ss.mHint;
+			if (hasLabel()) {
+				setLabelText(mHint);
 			}
 		}
-		switch (typefaceIndex) {
-			case SANS:
-				tf = Typeface.SANS_SERIF;
-				break;
 
-			case SERIF:
-				tf = Typeface.SERIF;
-				break;
+		// Snapped to in dispatchRestoreInstanceState, once the EditText text is restored too
+		mLabelShown = ss.mLabelShown;
+	}
 
-			case MONOSPACE:
-				tf = Typeface.MONOSPACE;
-				break;
+	@Override
+	protected void dispatchRestoreInstanceState(SparseArray<Parcelable> container) {
+		// Restoring many fields at once must not start an animation for each of them
+		mSuppressTransitions = true;
+		try {
+			super.dispatchRestoreInstanceState(container);
+		} finally {
+			mSuppressTransitions = false;
 		}
-
-		setLabelTypeface(tf, styleIndex);
+		snapLabel();
 	}
 
-	@Override
-	protected Parcelable onSaveInstanceState() {
-		Bundle bundle = new Bundle();
-		bundle.putParcelable(SAVED_SUPER_STATE, super.onSaveInstanceState());
-		bundle.putInt(SAVED_LABEL_VISIBILITY, mLabel.getVisibility());
-		bundle.putCharSequence(SAVED_HINT, mHint);
-		return bundle;
+	/**
+	 * Puts the label in its final shown/hidden state right away, without animation
+	 */
+	private void snapLabel() {
+		cancelLabelTransition();
+		boolean changed = mLabelAnimatedShown != mLabelShown;
+		mLabelAnimatedShown = mLabelShown;
+
+		if (!mLabelShown && !hasLabel()) {
+			return;
+		}
+		View label = getLabelView();
+		if (changed) {
+			FloatLabelMetrics.transitionSkipped(label, mLabelShown);
+		}
+		if (mHintMorph != null) {
+			mHintMorph.snapTo(mLabelShown);
+			return;
+		}
+		snapView(label, mLabelShown);
 	}
 
-	@Override
-	protected void onRestoreInstanceState(Parcelable state) {
-		if (state instanceof Bundle) {
-			Bundle bundle = (Bundle) state;
+	/**
+	 * Stops the transition of the label or helper line and puts it in its final state
+	 */
+	private void snapView(View view, boolean show) {
+		if (mLabelAnimator instanceof BaseLabelAnimator) {
+			((BaseLabelAnimator) mLabelAnimator).snap(view, show);
+			return;
+		}
+		if (mLabelAnimator instanceof FrameBudgetLabelAnimator) {
+			((FrameBudgetLabelAnimator) mLabelAnimator).snap(view, show);
+			return;
+		}
+		if (mLabelAnimator instanceof CancelableLabelAnimator) {
+			((CancelableLabelAnimator) mLabelAnimator).onCancelLabel(view);
+		}
+		LabelTransitionSpec.reset(view);
+		view.setVisibility(show ? VISIBLE : INVISIBLE);
+	}
 
-			int vis = bundle.getInt(SAVED_LABEL_VISIBILITY);
-			setLabelVisibility(vis);
+	/**
+	 * Runs the label transition on the next frame, so that text set several times in a row
+	 * (setText("") then setText(value), input filters) only animates the final state
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private void scheduleLabelTransition() {
+		if (mLabelTransitionPending) {
+			return;
+		}
+		mLabelTransitionPending = true;
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			postOnAnimation(mLabelTransition);
+		} else {
+			post(mLabelTransition);
+		}
+	}
 
-			mHint = bundle.getCharSequence(SAVED_HINT);
+	private void cancelLabelTransition() {
+		if (mLabelTransitionPending) {
+			mLabelTransitionPending = false;
+			removeCallbacks(mLabelTransition);
+		}
+	}
 
-			// retrieve super state
-			state = bundle.getParcelable(SAVED_SUPER_STATE);
+	/**
+	 * @return the hint the label shows when nothing else was set: flText, or the EditText hint
+	 */
+	private CharSequence getDefaultHint() {
+		if (!TextUtils.isEmpty(mLabelStyle.mText)) {
+			return mLabelStyle.mText;
 		}
-		super.onRestoreInstanceState(state);
+		return mEditText != null ? mEditText.getHint() : null;
 	}
 
 	@Override
@@ -351,12 +576,11 @@ public class FloatLabel extends FrameLayout {
 				throw new IllegalArgumentException("We already have an EditText, can only have one");
 			}
 
-			// Update the layout params so that the EditText is at the bottom, with enough top
-			// margin to show the label
+			// Update the layout params so that the EditText is at the bottom. The space for the
+			// label above it is added by onMeasure/onLayout
 			final LayoutParams lp = new LayoutParams(params);
 
 			lp.gravity = Gravity.BOTTOM;
-			lp.topMargin = (int) mLabel.getTextSize() + mLabelGap;
 			params = lp;
 
 			setEditText((EditText) child);
@@ -369,21 +593,77 @@ public class FloatLabel extends FrameLayout {
 	protected void setEditText(EditText editText) {
 		mEditText = editText;
 
-		mHint = mLabelText.length() != 0 ? mLabelText : mEditText.getHint();
-		setLabelText(mHint);
+		mHint = getDefaultHint();
+		if (hasLabel()) {
+			setLabelText(mHint);
+		}
+
+		// An EditText which already holds text starts with its label shown
+		mLabelShown = mEditText.length() != 0;
+		if (mCounterSuffix != null) {
+			mCounterLength = mEditText.length();
+			updateCounter();
+		}
+		mLabelAnimatedShown = mLabelShown;
+		cancelLabelTransition();
+		if (mHintMorph != null) {
+			mHintMorph.attach(mEditText);
+			mHintMorph.snapTo(mLabelShown);
+		} else {
+			setLabelVisibility(mLabelShown ? VISIBLE : INVISIBLE);
+		}
 
 		// Add a TextWatcher so that we know when the text input has changed
-		//mEditText.addTextChangedListener(mTextWatcher);
-		mEditText.addTextChangedListener(new EditTextWatcher());
+		mEditText.removeTextChangedListener(mTextWatcher);
+		mEditText.addTextChangedListener(mTextWatcher);
 
 		// Add focus listener to the EditText so that we can notify the label that it is activated.
 		// Allows the use of a ColorStateList for the text color on the label
-		mEditText.setOnFocusChangeListener(new OnFocusChangeListener() {
-			@Override
-			public void onFocusChange(View view, boolean focused) {
-				mLabel.setActivated(focused);
+		mEditText.setOnFocusChangeListener(mFocusListener);
+	}
+
+	/**
+	 * Binds the field to new data, e.g. when a recycled ListView/RecyclerView row is reused.
+	 * The existing EditText, listeners and label are reused, and the text is replaced in place.
+	 *
+	 * @param text    text of the EditText
+	 * @param hint    hint of the EditText and text of the label, or null to keep the current one
+	 * @param animate false to put the label in its final state right away, e.g. while scrolling
+	 */
+	public void bind(CharSequence text, CharSequence hint, boolean animate) {
+		if (hint != null && !TextUtils.equals(hint, mHint)) {
+			mHint = hint;
+			mEditText.setHint(hint);
+			if (hasLabel()) {
+				setLabelText(hint);
 			}
-		});
+		}
+
+		// The error belonged to the previous data
+		if (mError != null) {
+			setError(null);
+		}
+
+		if (!animate) {
+			mSuppressTransitions = true;
+		}
+		try {
+			Editable editable = mEditText.getText();
+			editable.replace(0, editable.length(), text != null ? text : "");
+		} finally {
+			mSuppressTransitions = false;
+		}
+		if (!animate) {
+			snapLabel();
+		}
+	}
+
+	/**
+	 * Resets the field before its row is recycled: clears the text and hides the label right
+	 * away, stopping any running transition.
+	 */
+	public void unbind() {
+		bind(null, null, false);
 	}
 
 	/**
@@ -394,125 +674,1193 @@ public class FloatLabel extends FrameLayout {
 	}
 
 	/**
-	 * @return the {@link android.widget.TextView} label
+	 * @return true if the label is shown (or animating to be shown) because the EditText holds text
+	 */
+	public final boolean isLabelShown() {
+		return mLabelShown;
+	}
+
+	/**
+	 * Creates the label if it was not needed so far.
+	 *
+	 * @return the {@link android.widget.TextView} label, or null if the label is drawn by
+	 * FloatLabel itself (see {@link #isLabelDrawn()})
 	 */
 	public final TextView getLabel() {
+		ensureLabel();
 		return mLabel;
 	}
 
 	/**
-	 * Helper functions
+	 * Sets the style of the helper/error line drawn below the EditText, and reserves its space.
+	 * Only the text attributes of the style are used.
+	 *
+	 * @param style style of the line, can be shared with other FloatLabels
 	 */
-	public void setLabelTypeface(Typeface tf) {
-		mLabel.setTypeface(tf);
+	public void setHelperStyle(LabelStyle style) {
+		mHelperStyle = style != null ? style : LabelStyle.DEFAULT;
+		mHelperColors = null;
+		if (mHelperLine == null) {
+			ensureHelperLine();
+		} else {
+			mHelperLine.setStyle(mHelperStyle);
+			updateHelperLine();
+			// The line height may have changed
+			requestLayout();
+		}
 	}
 
-	public void setLabelTypeface(Typeface tf, int style) {
-		mLabel.setTypeface(tf, style);
+	/**
+	 * @param text text of the helper line, shown while no error is set
+	 */
+	public void setHelperText(CharSequence text) {
+		mHelperText = text;
+		updateHelperLine();
 	}
 
-	public void setLabelAppearance(Context c, int styleResourceId) {
-		mLabel.setTextAppearance(c, styleResourceId);
+	public CharSequence getHelperText() {
+		return mHelperText;
 	}
 
-	public void setLabelAnimator(LabelAnimator labelAnimator) {
-		if (labelAnimator == null) {
-			mLabelAnimator = new DefaultLabelAnimator();
-		} else {
-			mLabelAnimator = labelAnimator;
-		}
+	/**
+	 * Shows an error in place of the helper text, in the error color (flErrorColor). Once the
+	 * line exists, changing the error only lays that line out again.
+	 *
+	 * @param error error to show, null to show the helper text again
+	 */
+	public void setError(CharSequence error) {
+		mError = error;
+		updateHelperLine();
 	}
 
-	public void setLabelHorizontallyScrolling(boolean whether) {
-		mLabel.setHorizontallyScrolling(whether);
+	public CharSequence getError() {
+		return mError;
 	}
 
-	public void setLabelTextScaleX(float size) {
-		mLabel.setTextScaleX(size);
+	/**
+	 * Creates the helper line, if not done yet. Its height is reserved from then on.
+	 */
+	private void ensureHelperLine() {
+		if (mHelperLine != null) {
+			return;
+		}
+		mHelperLine = new DrawnLabel(this, true);
+		mHelperLine.setStyle(mHelperStyle);
+		mHelperLine.setVisibility(INVISIBLE);
+		if (mEditText != null) {
+			mHelperLine.setActivated(mEditText.hasFocus());
+		}
+		requestLayout();
 	}
 
-	public void setLabelIncludeFontPadding(boolean includepad) {
-		mLabel.setIncludeFontPadding(includepad);
-	}
+	/**
+	 * Shows the error, or else the helper text, through the {@link LabelAnimator} when the line
+	 * appears or disappears. Replacing a text already shown only lays the line out again.
+	 */
+	private void updateHelperLine() {
+		final boolean error = !TextUtils.isEmpty(mError);
+		final CharSequence text = error ? mError : mHelperText;
+		final boolean show = !TextUtils.isEmpty(text);
+		if (mHelperLine == null) {
+			// Nothing to clear on a field which never had a line, and no space to reserve
+			if (!show) {
+				return;
+			}
+			ensureHelperLine();
+		}
 
-	public void setLabelPadding(int left, int top, int right, int bottom) {
-		mLabel.setPadding(left, top, right, bottom);
+		if (show) {
+			// A line being hidden keeps its last text until it is gone
+			mHelperLine.setText(text);
+			mHelperLine.setTextColor(error ? getErrorColors() : getHelperColors());
+		}
+
+		if (show == mHelperShown) {
+			return;
+		}
+		mHelperShown = show;
+
+		if (mSuppressTransitions || getWidth() == 0) {
+			snapHelperLine();
+		} else if (show) {
+			mLabelAnimator.onDisplayLabel(mHelperLine, mLabelAnimationDuration);
+		} else {
+			mLabelAnimator.onHideLabel(mHelperLine, mLabelAnimationDuration);
+		}
 	}
 
-	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
-	public void setLabelPaddingRelative(int start, int top, int end, int bottom) {
-		mLabel.setPaddingRelative(start, top, end, bottom);
+	/**
+	 * Puts the helper line in its final shown/hidden state right away, without animation
+	 */
+	private void snapHelperLine() {
+		if (mHelperLine != null) {
+			snapView(mHelperLine, mHelperShown);
+		}
 	}
 
-	public void setLabelEllipsize(TextUtils.TruncateAt where) {
-		mLabel.setEllipsize(where);
+	private ColorStateList getErrorColors() {
+		if (mErrorColors == null) {
+			mErrorColors = mLabelStyle.getErrorColor(mContext);
+		}
+		return mErrorColors;
 	}
 
-	public void setLabelColor(int color) {
-		mLabel.setTextColor(color);
+	private ColorStateList getHelperColors() {
+		if (mHelperColors == null) {
+			mHelperColors = mHelperStyle.getTextColor(mContext);
+		}
+		return mHelperColors;
 	}
 
-	public void setLabelColor(ColorStateList colors) {
-		mLabel.setTextColor(colors);
+	/**
+	 * Shows an "n / max" counter at the end of the helper line. Above the limit the counter and
+	 * the label take the error color (flErrorColor); the text itself is not cut.
+	 *
+	 * @param maxLength length the counter shows as its maximum, 0 to remove the counter
+	 */
+	public void setCounterMaxLength(int maxLength) {
+		if (maxLength == mCounterMax) {
+			return;
+		}
+		mCounterMax = maxLength;
+
+		if (maxLength > 0) {
+			ensureHelperLine();
+			mCounterSuffix = (" / " + maxLength).toCharArray();
+			// Room for any int count and the digit reserved above the maximum, plus the suffix
+			mCounterChars = new char[11 + mCounterSuffix.length];
+			mCounterLength = mEditText != null ? mEditText.length() : 0;
+			updateCounter();
+		} else {
+			mCounterSuffix = null;
+			mCounterChars = null;
+			setCounterOverflow(false);
+		}
+		requestLayout();
 	}
 
-	public void setLabelShadowLayer(float radius, float dx, float dy, int color) {
-		mLabel.setShadowLayer(radius, dx, dy, color);
+	public int getCounterMaxLength() {
+		return mCounterMax;
 	}
 
 	/**
-	 * Used to set label's text size
-	 * setTextSize(int unit, float size) is not provided
-	 * Only sp(dimesion) allowed
-	 *
-	 * @param size
+	 * Formats the count and redraws only the counter area, or measures it again when the count
+	 * has more digits than it was measured for
 	 */
-	public void setLabelSize(float size) {
-		mLabel.setTextSize(size);
+	private void updateCounter() {
+		mCounterCharCount = formatCounter(mCounterLength);
+		setCounterOverflow(mCounterLength > mCounterMax);
+		if (countDigits(mCounterLength) > mCounterDigits) {
+			requestLayout();
+		} else {
+			invalidate(mCounterLeft, mCounterTop, mCounterRight, mCounterBottom);
+		}
 	}
 
-	public void setLabelGravity(int gravity) {
-		mLabel.setGravity(gravity);
+	private static int countDigits(int count) {
+		int digits = 1;
+		for (int value = count; value >= 10; value /= 10) {
+			digits++;
+		}
+		return digits;
 	}
 
-	public void setLabelSingleLine(boolean singleLine) {
-		mLabel.setSingleLine(singleLine);
+	/**
+	 * Writes the digits of the count followed by the suffix into the counter buffer
+	 *
+	 * @return the number of chars written
+	 */
+	private int formatCounter(int count) {
+		count = Math.max(count, 0);
+		int digits = countDigits(count);
+		for (int i = digits - 1, value = count; i >= 0; i--, value /= 10) {
+			mCounterChars[i] = (char) ('0' + value % 10);
+		}
+		System.arraycopy(mCounterSuffix, 0, mCounterChars, digits, mCounterSuffix.length);
+		return digits + mCounterSuffix.length;
 	}
 
-	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
-	public void setLabelAllCaps(boolean allCaps) {
-		mLabel.setAllCaps(allCaps);
+	/**
+	 * @return the width the counter takes at the end of the helper line, enough for a count with
+	 * one more digit than the maximum, and the line padding in front of it
+	 */
+	private int measureCounterWidth() {
+		// A count over the maximum may have more digits, e.g. "100 / 99"
+		mCounterDigits = Math.max(countDigits(mCounterMax) + 1, countDigits(Math.max(mCounterLength, 0)));
+		for (int i = 0; i < mCounterDigits; i++) {
+			mCounterChars[i] = '0';
+		}
+		System.arraycopy(mCounterSuffix, 0, mCounterChars, mCounterDigits, mCounterSuffix.length);
+
+		TextPaint paint = mHelperLine.getPaint();
+		int width = (int) Math.ceil(paint.measureText(mCounterChars, 0, mCounterDigits + mCounterSuffix.length));
+		mCounterCharCount = formatCounter(mCounterLength);
+		return width + mHelperLine.getPaddingLeft() + mHelperLine.getPaddingRight();
 	}
 
-	public void setLabelVisibility(int visibility) {
-		mLabel.setVisibility(visibility);
+	private void drawCounter(Canvas canvas) {
+		if (mCounterSuffix == null) {
+			return;
+		}
+		TextPaint paint = mHelperLine.getPaint();
+		ColorStateList colors = mCounterOverflow ? getErrorColors() : getHelperColors();
+		paint.setColor(colors.getColorForState(mHelperLine.getDrawableState(), colors.getDefaultColor()));
+		float x = mCounterRight - paint.measureText(mCounterChars, 0, mCounterCharCount);
+		canvas.drawText(mCounterChars, 0, mCounterCharCount, x, mCounterBaseline, paint);
 	}
 
-	public void setLabelText(CharSequence text) {
-		mLabel.setText(text);
+	private void setCounterOverflow(boolean overflow) {
+		if (overflow == mCounterOverflow) {
+			return;
+		}
+		mCounterOverflow = overflow;
+
+		if (overflow) {
+			// Above the limit the text is not empty, the label is about to be shown anyway
+			ensureLabel();
+			applyOverflowColors();
+		} else if (mLabelColorsBeforeOverflow != null) {
+			ColorStateList colors = mLabelColorsBeforeOverflow;
+			mLabelColorsBeforeOverflow = null;
+			setLabelTextColors(colors);
+		}
+		if (mHintMorph != null) {
+			invalidate();
+		}
 	}
 
 	/**
-	 * Animation Instance
+	 * Gives the label the cached error colors while over the counter limit, keeping the colors
+	 * it had (or was just given) for when the text is short enough again
 	 */
-	private LabelAnimator mLabelAnimator = new DefaultLabelAnimator();
-
-	private class EditTextWatcher implements TextWatcher {
-		@Override
-		public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+	private void applyOverflowColors() {
+		if (!mCounterOverflow || !hasLabel()) {
+			return;
 		}
-
-		@Override
-		public void onTextChanged(CharSequence s, int start, int before, int count) {
+		endLabelActivation();
+		ColorStateList colors = getLabelTextColors();
+		if (colors != getErrorColors()) {
+			mLabelColorsBeforeOverflow = colors;
+			setLabelTextColors(getErrorColors());
 		}
+	}
 
-		@Override
-		public void afterTextChanged(Editable s) {
-			if (s.length() == 0) {
-				mLabelAnimator.onHideLabel(mLabel, mLabelAnimationDuration);
-			} else {
-				mLabelAnimator.onDisplayLabel(mLabel, mLabelAnimationDuration);
+	/**
+	 * Adds a validator of the text. Once the user stops typing for the validation delay, the
+	 * validators run in turn on the validation executor against a snapshot of the text, and the
+	 * first error found is shown with {@link #setError(CharSequence)}. Runs made stale by newer
+	 * input are dropped, only the result of the latest one is shown.
+	 */
+	public void addValidator(TextValidator validator) {
+		TextValidator[] validators = new TextValidator[mValidators.length + 1];
+		System.arraycopy(mValidators, 0, validators, 0, mValidators.length);
+		validators[mValidators.length] = validator;
+		mValidators = validators;
+	}
+
+	public void removeValidator(TextValidator validator) {
+		for (int i = 0; i < mValidators.length; i++) {
+			if (mValidators[i] == validator) {
+				TextValidator[] validators = new TextValidator[mValidators.length - 1];
+				System.arraycopy(mValidators, 0, validators, 0, i);
+				System.arraycopy(mValidators, i + 1, validators, i, validators.length - i);
+				mValidators = validators;
+				return;
 			}
 		}
 	}
+
+	/**
+	 * @param executor executor the validators run on, null for AsyncTask#THREAD_POOL_EXECUTOR.
+	 *                 Set by tests to run the validators when they choose.
+	 */
+	void setValidationExecutor(Executor executor) {
+		mValidationExecutor = executor != null ? executor : AsyncTask.THREAD_POOL_EXECUTOR;
+	}
+
+	/**
+	 * @param delay time in ms without input before the text is validated, 0 to validate on
+	 *              every change
+	 */
+	public void setValidationDelay(int delay) {
+		mValidationDelay = delay;
+	}
+
+	public void setOnValidationListener(OnValidationListener listener) {
+		mValidationListener = listener;
+	}
+
+	/**
+	 * Validates the current text now, without waiting for the validation delay, e.g. when a form
+	 * is submitted. The result is still delivered through setError and the listener.
+	 */
+	public void validate() {
+		startValidation();
+	}
+
+	/**
+	 * Restarts the validation delay, and makes any run in flight stale
+	 */
+	private void scheduleValidation() {
+		if (mValidators.length == 0) {
+			return;
+		}
+		mValidationGeneration++;
+		removeCallbacks(mValidationStart);
+		if (mValidationDelay <= 0) {
+			startValidation();
+		} else {
+			postDelayed(mValidationStart, mValidationDelay);
+		}
+	}
+
+	private void cancelValidation() {
+		mValidationGeneration++;
+		removeCallbacks(mValidationStart);
+	}
+
+	private void startValidation() {
+		removeCallbacks(mValidationStart);
+		if (mEditText == null || mValidators.length == 0) {
+			return;
+		}
+		final int generation = ++mValidationGeneration;
+		mValidationExecutor.execute(new ValidationRun(mEditText.getText().toString(), mValidators, generation));
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		super.onDetachedFromWindow();
+		cancelValidation();
+	}
+
+	/**
+	 * Morphs the hint into the label: the hint shrinks and moves up to the label position
+	 * instead of the label fading in. The hint is laid out once at each of the two text sizes
+	 * and the transition only scales and moves it, it never requests a layout. The label itself
+	 * then stays invisible and the {@link LabelAnimator} is not used.
+	 *
+	 * @param morph true to morph the hint, see R.styleable#FloatLabel_flMorphHint
+	 */
+	public void setMorphHint(boolean morph) {
+		if (morph == (mHintMorph != null)) {
+			return;
+		}
+
+		if (morph) {
+			// The label provides the size, colors and position the hint morphs to
+			ensureLabel();
+			cancelLabelTransition();
+			mLabelAnimatedShown = mLabelShown;
+			if (mLabelAnimator instanceof CancelableLabelAnimator) {
+				((CancelableLabelAnimator) mLabelAnimator).onCancelLabel(getLabelView());
+			}
+			getLabelView().setVisibility(INVISIBLE);
+
+			mHintMorph = new HintMorph(this);
+			mHintMorph.setText(mHint);
+			if (mEditText != null) {
+				mHintMorph.attach(mEditText);
+			}
+			mHintMorph.snapTo(mLabelShown);
+		} else {
+			mHintMorph.cancel();
+			if (mEditText != null) {
+				mHintMorph.detach(mEditText);
+			}
+			mHintMorph = null;
+			snapLabel();
+		}
+		invalidate();
+	}
+
+	public final boolean isMorphHint() {
+		return mHintMorph != null;
+	}
+
+	/**
+	 * @return true if the label is drawn by FloatLabel instead of being a child TextView
+	 */
+	public final boolean isLabelDrawn() {
+		return mDrawLabel;
+	}
+
+	/**
+	 * Creates the label if it was not needed so far.
+	 *
+	 * @return the view the {@link LabelAnimator} animates: the TextView label, or the
+	 * detached view standing in for it when the label is drawn by FloatLabel
+	 */
+	public final View getLabelView() {
+		ensureLabel();
+		return mDrawnLabel != null ? mDrawnLabel : mLabel;
+	}
+
+	private float getLabelTextSize() {
+		if (mDrawnLabel != null) {
+			return mDrawnLabel.getTextSize();
+		} else if (mLabel != null) {
+			return mLabel.getTextSize();
+		}
+		// Not created yet, reserve the space the styled label will need
+		return TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, mLabelStyle.mTextSize, getResources().getDisplayMetrics());
+	}
+
+	/**
+	 * @return the space reserved above the EditText for the label, recomputed only after the
+	 * label metrics changed
+	 */
+	private int getLabelOffset() {
+		if (!mLabelOffsetValid) {
+			mLabelOffset = (int) getLabelTextSize() + mLabelGap;
+			mLabelOffsetValid = true;
+		}
+		return mLabelOffset;
+	}
+
+	private void invalidateLabelOffset() {
+		mLabelOffsetValid = false;
+		requestLayout();
+	}
+
+	private int getHelperOffset() {
+		return mHelperLine != null ? mHelperLine.measureLineHeight() : 0;
+	}
+
+	/**
+	 * Measures every child once: the EditText (and any other child) first, then the label at
+	 * the resulting width, instead of FrameLayout's generic pass which measures match_parent
+	 * children twice.
+	 */
+	@Override
+	protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+		final int paddingHorizontal = getPaddingLeft() + getPaddingRight();
+		final int paddingVertical = getPaddingTop() + getPaddingBottom();
+		final int labelOffset = getLabelOffset();
+		final int helperOffset = getHelperOffset();
+
+		int maxWidth = 0;
+		int maxHeight = 0;
+		int childState = 0;
+
+		final int count = getChildCount();
+		for (int i = 0; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child == mLabel || child.getVisibility() == GONE) {
+				continue;
+			}
+
+			final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+			final int heightUsed = child == mEditText ? labelOffset + helperOffset : 0;
+			measureChildWithMargins(child, widthMeasureSpec, 0, heightMeasureSpec, heightUsed);
+
+			maxWidth = Math.max(maxWidth, child.getMeasuredWidth() + lp.leftMargin + lp.rightMargin);
+			maxHeight = Math.max(maxHeight, heightUsed + child.getMeasuredHeight() + lp.topMargin + lp.bottomMargin);
+			childState = combineMeasuredStates(childState, child.getMeasuredState());
+		}
+
+		maxWidth = Math.max(maxWidth + paddingHorizontal, getSuggestedMinimumWidth());
+		final int measuredWidth = resolveSizeAndState(maxWidth, widthMeasureSpec, childState);
+		final int contentWidth = Math.max((measuredWidth & MEASURED_SIZE_MASK) - paddingHorizontal, 0);
+
+		// Only needed when a wider child makes a match_parent child narrower than the content
+		for (int i = 0; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child == mLabel || child.getVisibility() == GONE) {
+				continue;
+			}
+
+			final MarginLayoutParams lp = (MarginLayoutParams) child.getLayoutParams();
+			final int width = contentWidth - lp.leftMargin - lp.rightMargin;
+			if (lp.width == LayoutParams.MATCH_PARENT && child.getMeasuredWidth() != width) {
+				final int heightUsed = child == mEditText ? labelOffset + helperOffset : 0;
+				child.measure(MeasureSpec.makeMeasureSpec(Math.max(width, 0), MeasureSpec.EXACTLY),
+						getChildMeasureSpec(heightMeasureSpec, paddingVertical + heightUsed + lp.topMargin + lp.bottomMargin, lp.height));
+			}
+		}
+
+		// The label spans the content width
+		if (mLabel != null && mLabel.getVisibility() != GONE) {
+			final MarginLayoutParams lp = (MarginLayoutParams) mLabel.getLayoutParams();
+			mLabel.measure(MeasureSpec.makeMeasureSpec(Math.max(contentWidth - lp.leftMargin - lp.rightMargin, 0), MeasureSpec.EXACTLY),
+					getChildMeasureSpec(heightMeasureSpec, paddingVertical + lp.topMargin + lp.bottomMargin, lp.height));
+			maxHeight = Math.max(maxHeight, mLabel.getMeasuredHeight() + lp.topMargin + lp.bottomMargin);
+		} else if (mDrawnLabel != null) {
+			maxHeight = Math.max(maxHeight, mDrawnLabel.measureHeight(contentWidth));
+		}
+
+		maxHeight = Math.max(maxHeight + paddingVertical, getSuggestedMinimumHeight());
+		setMeasuredDimension(measuredWidth,
+				resolveSizeAndState(maxHeight, heightMeasureSpec, childState << MEASURED_HEIGHT_STATE_SHIFT));
+	}
+
+	/**
+	 * Lays the label out at the top, the EditText at the bottom above the helper line, and any
+	 * other child within the padding according to its gravity, as a FrameLayout would.
+	 */
+	@Override
+	protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+		final int parentLeft = getPaddingLeft();
+		final int parentRight = right - left - getPaddingRight();
+		final int parentTop = getPaddingTop();
+		final int parentBottom = bottom - top - getPaddingBottom();
+		final int labelOffset = getLabelOffset();
+		final int helperOffset = getHelperOffset();
+
+		final int count = getChildCount();
+		for (int i = 0; i < count; i++) {
+			final View child = getChildAt(i);
+			if (child.getVisibility() == GONE) {
+				continue;
+			}
+
+			final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+			final int width = child.getMeasuredWidth();
+			final int height = child.getMeasuredHeight();
+			int childLeft = parentLeft + lp.leftMargin;
+			int childTop = parentTop + lp.topMargin;
+
+			if (child == mEditText) {
+				// At the bottom above the helper line, but never over the label
+				childTop = Math.max(childTop + labelOffset, parentBottom - helperOffset - lp.bottomMargin - height);
+			} else if (child != mLabel && lp.gravity != -1) {
+				switch (getAbsoluteHorizontalGravity(lp.gravity)) {
+					case Gravity.CENTER_HORIZONTAL:
+						childLeft = parentLeft + (parentRight - parentLeft - width) / 2 + lp.leftMargin - lp.rightMargin;
+						break;
+					case Gravity.RIGHT:
+						childLeft = parentRight - width - lp.rightMargin;
+						break;
+				}
+				switch (lp.gravity & Gravity.VERTICAL_GRAVITY_MASK) {
+					case Gravity.CENTER_VERTICAL:
+						childTop = parentTop + (parentBottom - parentTop - height) / 2 + lp.topMargin - lp.bottomMargin;
+						break;
+					case Gravity.BOTTOM:
+						childTop = parentBottom - height - lp.bottomMargin;
+						break;
+				}
+			}
+
+			child.layout(childLeft, childTop, childLeft + width, childTop + height);
+		}
+
+		if (mDrawnLabel != null) {
+			final int width = right - left - getPaddingLeft() - getPaddingRight();
+			mDrawnLabel.layout(parentLeft, parentTop, parentLeft + width, parentTop + mDrawnLabel.measureHeight(width));
+		}
+
+		if (mHelperLine != null) {
+			final int width = right - left - getPaddingLeft() - getPaddingRight();
+			final int lineTop = parentBottom - helperOffset;
+			final int lineRight = parentLeft + width;
+			final int counterWidth = mCounterSuffix != null ? measureCounterWidth() : 0;
+
+			// Lays the current text out at this width, later text changes reuse it
+			mHelperLine.measureHeight(width - counterWidth);
+			mHelperLine.layout(parentLeft, lineTop, lineRight - counterWidth, parentBottom);
+
+			mCounterLeft = lineRight - counterWidth;
+			mCounterTop = lineTop;
+			mCounterRight = lineRight - mHelperLine.getPaddingRight();
+			mCounterBottom = parentBottom;
+			mCounterBaseline = lineTop + mHelperLine.getLineBaseline();
+		}
+	}
+
+	/**
+	 * @return the horizontal part of the gravity, start and end resolved against the layout
+	 * direction
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	private int getAbsoluteHorizontalGravity(int gravity) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+			gravity = Gravity.getAbsoluteGravity(gravity, getLayoutDirection());
+		}
+		// Before API 17, start and end share their bits with left and right
+		return gravity & Gravity.HORIZONTAL_GRAVITY_MASK;
+	}
+
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		// Drawn first, like the TextView label which is the first child
+		if (mDrawnLabel != null) {
+			mDrawnLabel.drawLabel(canvas);
+		}
+		if (mHelperLine != null) {
+			mHelperLine.drawLabel(canvas);
+			drawCounter(canvas);
+		}
+		super.dispatchDraw(canvas);
+
+		// Over the EditText, where its own hint would be
+		if (mHintMorph != null && mEditText != null) {
+			mHintMorph.draw(canvas, mEditText, getLabelView(),
+					mDrawnLabel != null ? mDrawnLabel.getPaint() : mLabel.getPaint(), getLabelTextColors(),
+					mDrawnLabel != null ? mDrawnLabel.getGravity() : mLabel.getGravity());
+		}
+	}
+
+	/**
+	 * Helper functions
+	 */
+	/**
+	 * Lets the animators put the label on a hardware layer while it animates,
+	 * see {@link LabelAnimator#LAYER_AUTO}
+	 */
+	private void updateLabelExpensive() {
+		LabelLayers.setExpensive(getLabelView(), mLabelShadow || mLabelCustomTypeface);
+	}
+
+	public void setLabelTypeface(Typeface tf) {
+		ensureLabel();
+		mLabelCustomTypeface = tf != null;
+		updateLabelExpensive();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTypeface(tf);
+		} else {
+			mLabel.setTypeface(tf);
+		}
+	}
+
+	public void setLabelTypeface(Typeface tf, int style) {
+		ensureLabel();
+		mLabelCustomTypeface = tf != null;
+		updateLabelExpensive();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTypeface(tf, style);
+		} else {
+			mLabel.setTypeface(tf, style);
+		}
+	}
+
+	public void setLabelAppearance(Context c, int styleResourceId) {
+		ensureLabel();
+		endLabelActivation();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTextAppearance(c, styleResourceId);
+		} else {
+			mLabel.setTextAppearance(c, styleResourceId);
+		}
+		applyOverflowColors();
+		invalidateLabelOffset();
+	}
+
+	public LabelAnimator getLabelAnimator() {
+		return mLabelAnimator;
+	}
+
+	/**
+	 * @param labelAnimator animator of the label and helper line transitions, null for a
+	 *                      {@link DefaultLabelAnimator}. Transitions the previous animator is
+	 *                      running are skipped to their end first, so that the two never drive
+	 *                      the same label.
+	 */
+	public void setLabelAnimator(LabelAnimator labelAnimator) {
+		if (labelAnimator != null && labelAnimator == mLabelAnimator) {
+			return;
+		}
+		// Snapped with the outgoing animator, which owns their transition state
+		if (mLabelAnimator instanceof CancelableLabelAnimator) {
+			snapLabel();
+			snapHelperLine();
+		}
+		mLabelAnimator = labelAnimator != null ? labelAnimator : new DefaultLabelAnimator();
+		if (mLabelAnimator instanceof FrameBudgetLabelAnimator) {
+			((FrameBudgetLabelAnimator) mLabelAnimator).watchFrames(this);
+		}
+	}
+
+	public void setLabelHorizontallyScrolling(boolean whether) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setHorizontallyScrolling(whether);
+		} else {
+			mLabel.setHorizontallyScrolling(whether);
+		}
+	}
+
+	public void setLabelTextScaleX(float size) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTextScaleX(size);
+		} else {
+			mLabel.setTextScaleX(size);
+		}
+	}
+
+	public void setLabelIncludeFontPadding(boolean includepad) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setIncludeFontPadding(includepad);
+		} else {
+			mLabel.setIncludeFontPadding(includepad);
+		}
+	}
+
+	public void setLabelPadding(int left, int top, int right, int bottom) {
+		ensureLabel();
+		getLabelView().setPadding(left, top, right, bottom);
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	public void setLabelPaddingRelative(int start, int top, int end, int bottom) {
+		ensureLabel();
+		getLabelView().setPaddingRelative(start, top, end, bottom);
+	}
+
+	public void setLabelEllipsize(TextUtils.TruncateAt where) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setEllipsize(where);
+		} else {
+			mLabel.setEllipsize(where);
+		}
+	}
+
+	public void setLabelColor(int color) {
+		ensureLabel();
+		endLabelActivation();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTextColor(color);
+		} else {
+			mLabel.setTextColor(color);
+		}
+		applyOverflowColors();
+	}
+
+	public void setLabelColor(ColorStateList colors) {
+		ensureLabel();
+		endLabelActivation();
+		setLabelTextColors(colors);
+		applyOverflowColors();
+	}
+
+	private void setLabelTextColors(ColorStateList colors) {
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTextColor(colors);
+		} else {
+			mLabel.setTextColor(colors);
+		}
+	}
+
+	/**
+	 * @param duration duration in ms of the label color transition when the EditText gains or
+	 *                 loses focus, 0 to switch colors right away
+	 */
+	public void setActivationColorDuration(int duration) {
+		mActivationDuration = duration;
+		if (duration <= 0) {
+			endLabelActivation();
+		}
+	}
+
+	/**
+	 * Activates the label and moves its color towards the activated (or inactive) one. The
+	 * colors in between come from the {@link ColorRamp} of the label colors, precomputed once per
+	 * ColorStateList, so each frame only hands the label one of them.
+	 */
+	private void animateLabelActivation(boolean activated) {
+		View label = getLabelView();
+		// Reversed from the current step when still running
+		final boolean running = mActivationColors != null;
+		ColorStateList colors = running ? mActivationColors : getLabelTextColors();
+		ColorRamp ramp = ColorRamp.get(colors);
+		int from = running ? mActivationStep : (activated ? 0 : ColorRamp.STEPS);
+
+		label.setActivated(activated);
+
+		boolean visible = label.getVisibility() == VISIBLE || mHintMorph != null;
+		if (!ramp.isAnimated() || mActivationDuration <= 0 || !visible) {
+			endLabelActivation();
+			return;
+		}
+
+		if (mActivationAnimator == null) {
+			mActivationAnimator = ValueAnimator.ofFloat(0, 1);
+			// No AnimatorListener: the animator would copy the listener list on every start,
+			// cancel and end, once per focus change
+			mActivationAnimator.addUpdateListener(new ActivationListener());
+		} else if (mActivationAnimator.isRunning()) {
+			mActivationAnimator.cancel();
+		}
+
+		mActivationColors = colors;
+		mActivationRamp = ramp;
+		mActivationFrom = from;
+		mActivationTo = activated ? ColorRamp.STEPS : 0;
+		mActivationAnimator.setDuration(mActivationDuration * Math.abs(mActivationTo - from) / ColorRamp.STEPS);
+		applyActivationStep(from);
+		mActivationAnimator.start();
+	}
+
+	private void applyActivationStep(int step) {
+		mActivationStep = step;
+		setLabelTextColors(mActivationRamp.getStep(step));
+		if (mHintMorph != null) {
+			invalidate();
+		}
+	}
+
+	/**
+	 * Stops the color transition, if any, and gives the label its own colors back
+	 */
+	private void endLabelActivation() {
+		if (mActivationColors == null) {
+			return;
+		}
+		if (mActivationAnimator.isRunning()) {
+			mActivationAnimator.cancel();
+		}
+		restoreLabelColors();
+	}
+
+	private void restoreLabelColors() {
+		ColorStateList colors = mActivationColors;
+		mActivationColors = null;
+		mActivationRamp = null;
+		setLabelTextColors(colors);
+		if (mHintMorph != null) {
+			invalidate();
+		}
+	}
+
+	public void setLabelShadowLayer(float radius, float dx, float dy, int color) {
+		ensureLabel();
+		mLabelShadow = radius > 0;
+		updateLabelExpensive();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setShadowLayer(radius, dx, dy, color);
+		} else {
+			mLabel.setShadowLayer(radius, dx, dy, color);
+		}
+	}
+
+	/**
+	 * Used to set label's text size
+	 * setTextSize(int unit, float size) is not provided
+	 * Only sp(dimesion) allowed
+	 *
+	 * @param size
+	 */
+	public void setLabelSize(float size) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setTextSize(size);
+		} else {
+			mLabel.setTextSize(size);
+		}
+		invalidateLabelOffset();
+	}
+
+	public void setLabelGravity(int gravity) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setGravity(gravity);
+		} else {
+			mLabel.setGravity(gravity);
+		}
+	}
+
+	public void setLabelSingleLine(boolean singleLine) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setSingleLine(singleLine);
+		} else {
+			mLabel.setSingleLine(singleLine);
+		}
+	}
+
+	/**
+	 * Below API 14, only a drawn label is put in caps
+	 */
+	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+	public void setLabelAllCaps(boolean allCaps) {
+		ensureLabel();
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setAllCaps(allCaps);
+		} else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+			mLabel.setAllCaps(allCaps);
+		}
+	}
+
+	public void setLabelVisibility(int visibility) {
+		// A label not created yet is already invisible
+		if (!hasLabel() && visibility != VISIBLE) {
+			return;
+		}
+		getLabelView().setVisibility(visibility);
+	}
+
+	private ColorStateList getLabelTextColors() {
+		return mDrawnLabel != null ? mDrawnLabel.getTextColors() : mLabel.getTextColors();
+	}
+
+	public void setLabelText(CharSequence text) {
+		ensureLabel();
+		if (mHintMorph != null) {
+			mHintMorph.setText(text);
+		}
+		if (mDrawnLabel != null) {
+			mDrawnLabel.setText(text);
+		} else {
+			mLabel.setText(text);
+		}
+	}
+
+	/**
+	 * Animation Instance
+	 */
+	private LabelAnimator mLabelAnimator = new DefaultLabelAnimator();
+
+	/**
+	 * Receives the result of the latest validation, on the UI thread
+	 */
+	public interface OnValidationListener {
+		/**
+		 * @param error error found by the validators, null if the text is valid
+		 */
+		public void onValidated(FloatLabel floatLabel, CharSequence error);
+	}
+
+	/**
+	 * Runs the validators on the executor, then posts itself back to the UI thread to deliver
+	 * the result, if no newer input came in the meantime
+	 */
+	private class ValidationRun implements Runnable {
+		private final String mText;
+		private final TextValidator[] mRunValidators;
+		private final int mGeneration;
+
+		private boolean mValidated;
+		private CharSequence mResult;
+
+		ValidationRun(String text, TextValidator[] validators, int generation) {
+			mText = text;
+			mRunValidators = validators;
+			mGeneration = generation;
+		}
+
+		@Override
+		public void run() {
+			if (mValidated) {
+				deliver();
+				return;
+			}
+
+			for (TextValidator validator : mRunValidators) {
+				if (mGeneration != mValidationGeneration) {
+					// Newer input, this result would never be shown
+					return;
+				}
+				mResult = validator.validate(mText);
+				if (mResult != null) {
+					break;
+				}
+			}
+			mValidated = true;
+
+			if (Looper.myLooper() == Looper.getMainLooper()) {
+				deliver();
+			} else {
+				// Detaching made the run stale, should the post still run after it
+				post(this);
+			}
+		}
+
+		private void deliver() {
+			if (mGeneration != mValidationGeneration) {
+				return;
+			}
+			// A valid result on a field showing no error leaves the helper line alone
+			if (!TextUtils.equals(mResult, mError)) {
+				setError(mResult);
+			}
+			if (mValidationListener != null) {
+				mValidationListener.onValidated(FloatLabel.this, mResult);
+			}
+		}
+	}
+
+	private class ActivationListener implements ValueAnimator.AnimatorUpdateListener {
+		@Override
+		public void onAnimationUpdate(ValueAnimator animation) {
+			if (mActivationRamp == null) {
+				return;
+			}
+			// The fraction is a primitive, unlike the animated value
+			float fraction = animation.getAnimatedFraction();
+			if (fraction >= 1) {
+				// Last frame, the animator ends on its own
+				restoreLabelColors();
+				return;
+			}
+			int step = mActivationFrom + Math.round((mActivationTo - mActivationFrom) * fraction);
+			if (step != mActivationStep) {
+				applyActivationStep(step);
+			}
+		}
+	}
+
+	private class EditTextWatcher implements TextWatcher {
+		@Override
+		public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+		}
+
+		@Override
+		public void onTextChanged(CharSequence s, int start, int before, int count) {
+			if (mCounterSuffix != null) {
+				mCounterLength += count - before;
+				updateCounter();
+			}
+		}
+
+		@Override
+		public void afterTextChanged(Editable s) {
+			FloatLabelMetrics.Listener metrics = FloatLabelMetrics.sListener;
+			if (metrics != null) {
+				metrics.onTextChanged(FloatLabel.this);
+			}
+
+			if (mSuppressTransitions) {
+				// Restored or rebound text: only drop the runs in flight
+				cancelValidation();
+			} else {
+				scheduleValidation();
+			}
+
+			// Only notify the animator when the EditText flips between empty and non-empty
+			boolean show = s.length() != 0;
+			if (show == mLabelShown) {
+				return;
+			}
+			mLabelShown = show;
+			if (mSuppressTransitions) {
+				return;
+			}
+
+			scheduleLabelTransition();
+		}
+	}
+
+	/**
+	 * Builds FloatLabels in code, e.g. for forms generated at runtime. Nothing is read from XML
+	 * attributes: resolve the {@link LabelStyle} once and share it between all the fields.
+	 * <pre>
+	 * LabelStyle style = LabelStyle.fromResource(context, R.style.FormLabel);
+	 * FloatLabel field = new FloatLabel.Builder(context)
+	 *         .setStyle(style)
+	 *         .setHint("Email")
+	 *         .build();
+	 * </pre>
+	 */
+	public static class Builder {
+		private final Context mContext;
+		private LabelStyle mStyle = LabelStyle.DEFAULT;
+		private EditText mEditText;
+		private CharSequence mHint;
+		private LabelAnimator mLabelAnimator;
+
+		public Builder(Context context) {
+			mContext = context;
+		}
+
+		public Builder setStyle(LabelStyle style) {
+			mStyle = style != null ? style : LabelStyle.DEFAULT;
+			return this;
+		}
+
+		/**
+		 * @param editText EditText to wrap, a plain EditText is created if not set
+		 */
+		public Builder setEditText(EditText editText) {
+			mEditText = editText;
+			return this;
+		}
+
+		/**
+		 * @param hint hint of the EditText, shown by the label too unless the style has a text
+		 */
+		public Builder setHint(CharSequence hint) {
+			mHint = hint;
+			return this;
+		}
+
+		public Builder setLabelAnimator(LabelAnimator labelAnimator) {
+			mLabelAnimator = labelAnimator;
+			return this;
+		}
+
+		public FloatLabel build() {
+			FloatLabel floatLabel = new FloatLabel(mContext, mStyle);
+			if (mLabelAnimator != null) {
+				floatLabel.setLabelAnimator(mLabelAnimator);
+			}
+
+			EditText editText = mEditText != null ? mEditText : new EditText(mContext);
+			if (mHint != null) {
+				editText.setHint(mHint);
+			}
+
+			ViewGroup.LayoutParams params = editText.getLayoutParams();
+			if (params == null) {
+				params = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.WRAP_CONTENT);
+			}
+			floatLabel.addView(editText, params);
+			return floatLabel;
+		}
+	}
+
+	/**
+	 * Label state saved on top of the FrameLayout state: one flags byte, plus the hint only when
+	 * it differs from the one set up on inflation.
+	 */
+	static class SavedState extends BaseSavedState {
+		private static final int FLAG_LABEL_SHOWN = 1;
+		private static final int FLAG_HINT = 1 << 1;
+
+		boolean mLabelShown;
+		CharSequence mHint;
+
+		SavedState(Parcelable superState) {
+			super(superState);
+		}
+
+		private SavedState(Parcel in) {
+			super(in);
+			int flags = in.readByte();
+			mLabelShown = (flags & FLAG_LABEL_SHOWN) != 0;
+			if ((flags & FLAG_HINT) != 0) {
+				mHint = TextUtils.CHAR_SEQUENCE_CREATOR.createFromParcel(in);
+			}
+		}
+
+		@Override
+		public void writeToParcel(Parcel out, int flags) {
+			super.writeToParcel(out, flags);
+			int stateFlags = 0;
+			if (mLabelShown) {
+				stateFlags |= FLAG_LABEL_SHOWN;
+			}
+			if (mHint != null) {
+				stateFlags |= FLAG_HINT;
+			}
+			out.writeByte((byte) stateFlags);
+			if (mHint != null) {
+				TextUtils.writeToParcel(mHint, out, flags);
+			}
+		}
+
+		public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+			@Override
+			public SavedState createFromParcel(Parcel in) {
+				return new SavedState(in);
+			}
+
+			@Override
+			public SavedState[] newArray(int size) {
+				return new SavedState[size];
+			}
+		};
+	}
 }
@@ -0,0 +1,202 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.TimeInterpolator;
+import android.animation.ValueAnimator;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.AnimationUtils;
+
+import java.util.ArrayList;
+
+/**
+ * Coordinates the label transitions of a set of {@link FloatLabel}s, e.g. all the fields of a
+ * form. It is the {@link LabelAnimator} of every FloatLabel added to it, and drives all their
+ * transitions from a single {@link ValueAnimator}: filling 20 fields at once (autofill, restored
+ * draft, "same as billing address") costs one animation pulse per frame instead of 20
+ * AnimatorSets.
+ * <p/>
+ * Transitions requested during the same frame can be staggered, see {@link #setStagger(long)}.
+ * Durations and stagger follow the system animator duration scale, and labels are shown and
+ * hidden right away when animations are turned off. The per-label state is created once and kept against the label view, so steady-state
+ * transitions do not allocate.
+ */
+public class FloatLabelGroup extends BaseLabelAnimator implements ValueAnimator.AnimatorUpdateListener {
+
+	private final ValueAnimator mPulse;
+	private final ArrayList<GroupTransition> mRunning = new ArrayList<GroupTransition>();
+
+	private TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+	private long mStagger = 0;
+
+	// Transitions started since the last frame, used to stagger them
+	private int mBatchSize = 0;
+
+	// System animator duration scale, read whenever the pulse starts. The pulse times the
+	// transitions itself, the scale ValueAnimator applies does not reach them.
+	private float mDurationScale = 1;
+
+	public FloatLabelGroup() {
+		mPulse = ValueAnimator.ofFloat(0, 1);
+		// Runs for as long as transitions are running, it is stopped by the last one
+		mPulse.setRepeatCount(ValueAnimator.INFINITE);
+		mPulse.addUpdateListener(this);
+	}
+
+	/**
+	 * Makes this group drive the label transitions of the FloatLabel
+	 */
+	public void add(FloatLabel floatLabel) {
+		floatLabel.setLabelAnimator(this);
+	}
+
+	/**
+	 * Stops driving the label transitions of the FloatLabel, which goes back to a
+	 * {@link DefaultLabelAnimator}. A running transition is skipped to its end, see
+	 * {@link FloatLabel#setLabelAnimator(LabelAnimator)}.
+	 */
+	public void remove(FloatLabel floatLabel) {
+		if (floatLabel.getLabelAnimator() == this) {
+			floatLabel.setLabelAnimator(null);
+		}
+	}
+
+	/**
+	 * @param stagger delay in ms added between consecutive transitions requested during the same
+	 *                frame, 0 (the default) to play them all together
+	 */
+	public void setStagger(long stagger) {
+		mStagger = Math.max(stagger, 0);
+	}
+
+	public void setInterpolator(TimeInterpolator interpolator) {
+		mInterpolator = interpolator != null ? interpolator : new AccelerateDecelerateInterpolator();
+	}
+
+	@Override
+	Transition newTransition(View label) {
+		return new GroupTransition(label, this);
+	}
+
+	private void play(GroupTransition transition, long duration) {
+		View label = transition.mLabel;
+		if (!mPulse.isRunning()) {
+			mDurationScale = getDurationScale(label.getContext().getContentResolver());
+		}
+		if (mDurationScale == 0) {
+			// Animations are off: no pulse, the label goes to its end values
+			label.setAlpha(transition.mShow ? 1 : 0);
+			label.setTranslationY(transition.mShow ? 0 : label.getHeight() / 8);
+			transition.finish();
+			return;
+		}
+
+		transition.mDuration = (long) (duration * mDurationScale);
+		transition.mStartTime = AnimationUtils.currentAnimationTimeMillis()
+				+ (long) (mStagger * mDurationScale) * mBatchSize;
+		mBatchSize++;
+
+		// Start values are applied right away, staggered labels wait on them
+		label.setAlpha(transition.mStartAlpha);
+		label.setTranslationY(transition.mStartY);
+		label.setVisibility(View.VISIBLE);
+
+		transition.mRunning = true;
+		mRunning.add(transition);
+		if (!mPulse.isRunning()) {
+			mPulse.start();
+		}
+	}
+
+	private void stop(GroupTransition transition) {
+		transition.mRunning = false;
+		mRunning.remove(transition);
+		stopPulseIfIdle();
+	}
+
+	@Override
+	public void onAnimationUpdate(ValueAnimator animation) {
+		mBatchSize = 0;
+		long now = AnimationUtils.currentAnimationTimeMillis();
+
+		for (int i = mRunning.size() - 1; i >= 0; i--) {
+			GroupTransition transition = mRunning.get(i);
+			View label = transition.mLabel;
+
+			long elapsed = now - transition.mStartTime;
+			if (elapsed < 0) {
+				// Still waiting on its stagger delay
+				continue;
+			}
+
+			float fraction = transition.mDuration > 0 ? Math.min(elapsed / (float) transition.mDuration, 1) : 1;
+			float interpolated = mInterpolator.getInterpolation(fraction);
+			float endAlpha = transition.mShow ? 1 : 0;
+			float endY = transition.mShow ? 0 : label.getHeight() / 8;
+
+			label.setAlpha(transition.mStartAlpha + (endAlpha - transition.mStartAlpha) * interpolated);
+			label.setTranslationY(transition.mStartY + (endY - transition.mStartY) * interpolated);
+			FloatLabelMetrics.animationFrame(label);
+
+			if (fraction >= 1) {
+				transition.mRunning = false;
+				mRunning.remove(i);
+				transition.finish();
+			}
+		}
+
+		stopPulseIfIdle();
+	}
+
+	private void stopPulseIfIdle() {
+		if (mRunning.isEmpty() && mPulse.isRunning()) {
+			mPulse.cancel();
+		}
+	}
+
+	/**
+	 * Per-label transition state, played by the pulse of the group. Times are in
+	 * {@link AnimationUtils#currentAnimationTimeMillis()}.
+	 */
+	private static class GroupTransition extends Transition {
+		private final FloatLabelGroup mGroup;
+
+		private boolean mRunning;
+		private float mStartAlpha;
+		private float mStartY;
+		private long mStartTime;
+		private long mDuration;
+
+		GroupTransition(View label, FloatLabelGroup group) {
+			super(label, group);
+			mGroup = group;
+		}
+
+		@Override
+		boolean isRunning() {
+			return mRunning;
+		}
+
+		@Override
+		void stop() {
+			mGroup.stop(this);
+		}
+
+		@Override
+		float captureCurrent() {
+			mStartAlpha = mLabel.getAlpha();
+			mStartY = mLabel.getTranslationY();
+			return mStartAlpha;
+		}
+
+		@Override
+		void captureSettled(boolean show) {
+			mStartAlpha = show ? 0 : 1;
+			mStartY = show ? mLabel.getHeight() / 8 : 0;
+		}
+
+		@Override
+		void play(long duration, float startProgress) {
+			mGroup.play(this, duration);
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.view.View;
+
+/**
+ * Optional, process-wide metrics of the label machinery: {@link FloatLabel} and the library
+ * {@link LabelAnimator}s report into the {@link Listener} set with {@link #setListener(Listener)}.
+ * <p/>
+ * With no listener set (the default), reporting costs a single null check and never allocates,
+ * so it can stay in release builds. Callbacks are made on the UI thread.
+ */
+public final class FloatLabelMetrics {
+
+	/**
+	 * Receives the metrics. Implementations must be fast, they are called from the text
+	 * watcher and from every animation frame.
+	 */
+	public interface Listener {
+		/**
+		 * A FloatLabel was inflated
+		 *
+		 * @param durationNanos time spent reading its attributes and setting up its label
+		 */
+		public void onInflate(FloatLabel floatLabel, long durationNanos);
+
+		/**
+		 * The text of the EditText of a FloatLabel changed
+		 */
+		public void onTextChanged(FloatLabel floatLabel);
+
+		/**
+		 * A LabelAnimator started a transition
+		 */
+		public void onTransitionStarted(View label, boolean show);
+
+		/**
+		 * A running transition was stopped before its end, to be reversed or snapped
+		 */
+		public void onTransitionCanceled(View label);
+
+		/**
+		 * A transition was not played: the label was put in its final state right away, or the
+		 * state went back to the one already shown within the same frame
+		 */
+		public void onTransitionSkipped(View label, boolean show);
+
+		/**
+		 * A transition drew one more animation frame
+		 */
+		public void onAnimationFrame(View label);
+	}
+
+	/**
+	 * {@link Listener} counting every callback, e.g. to log the totals once a screen is closed
+	 */
+	public static class Counter implements Listener {
+		private int mInflateCount;
+		private long mInflateNanos;
+		private int mTextChangedCount;
+		private int mTransitionStartedCount;
+		private int mTransitionCanceledCount;
+		private int mTransitionSkippedCount;
+		private int mAnimationFrameCount;
+
+		@Override
+		public void onInflate(FloatLabel floatLabel, long durationNanos) {
+			mInflateCount++;
+			mInflateNanos += durationNanos;
+		}
+
+		@Override
+		public void onTextChanged(FloatLabel floatLabel) {
+			mTextChangedCount++;
+		}
+
+		@Override
+		public void onTransitionStarted(View label, boolean show) {
+			mTransitionStartedCount++;
+		}
+
+		@Override
+		public void onTransitionCanceled(View label) {
+			mTransitionCanceledCount++;
+		}
+
+		@Override
+		public void onTransitionSkipped(View label, boolean show) {
+			mTransitionSkippedCount++;
+		}
+
+		@Override
+		public void onAnimationFrame(View label) {
+			mAnimationFrameCount++;
+		}
+
+		public int getInflateCount() {
+			return mInflateCount;
+		}
+
+		public long getInflateNanos() {
+			return mInflateNanos;
+		}
+
+		public int getTextChangedCount() {
+			return mTextChangedCount;
+		}
+
+		public int getTransitionStartedCount() {
+			return mTransitionStartedCount;
+		}
+
+		public int getTransitionCanceledCount() {
+			return mTransitionCanceledCount;
+		}
+
+		public int getTransitionSkippedCount() {
+			return mTransitionSkippedCount;
+		}
+
+		public int getAnimationFrameCount() {
+			return mAnimationFrameCount;
+		}
+
+		public void reset() {
+			mInflateCount = 0;
+			mInflateNanos = 0;
+			mTextChangedCount = 0;
+			mTransitionStartedCount = 0;
+			mTransitionCanceledCount = 0;
+			mTransitionSkippedCount = 0;
+			mAnimationFrameCount = 0;
+		}
+	}
+
+	// Read once per report, callers copy it to a local before the null check
+	static volatile Listener sListener;
+
+	private FloatLabelMetrics() {
+	}
+
+	/**
+	 * @param listener listener receiving the metrics of all FloatLabels, null to stop reporting
+	 */
+	public static void setListener(Listener listener) {
+		sListener = listener;
+	}
+
+	public static Listener getListener() {
+		return sListener;
+	}
+
+	static void transitionStarted(View label, boolean show) {
+		Listener listener = sListener;
+		if (listener != null) {
+			listener.onTransitionStarted(label, show);
+		}
+	}
+
+	static void transitionCanceled(View label) {
+		Listener listener = sListener;
+		if (listener != null) {
+			listener.onTransitionCanceled(label);
+		}
+	}
+
+	static void transitionSkipped(View label, boolean show) {
+		Listener listener = sListener;
+		if (listener != null) {
+			listener.onTransitionSkipped(label, show);
+		}
+	}
+
+	static void animationFrame(View label) {
+		Listener listener = sListener;
+		if (listener != null) {
+			listener.onAnimationFrame(label);
+		}
+	}
+}
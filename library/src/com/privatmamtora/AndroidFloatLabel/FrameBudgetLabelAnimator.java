@@ -0,0 +1,258 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+/**
+ * {@link LabelAnimator} which plays the transitions of another animator, but shows and hides the
+ * label instantly when animating it would make things worse:
+ * <ul>
+ * <li>recent frames went over budget, e.g. while the keyboard opens and the form is laid out
+ * again. Frame times are watched through {@link Choreographer} for a little while once the
+ * animator is set on a FloatLabel, once its field gains focus, and after every transition, so
+ * that the first transition already sees the frames of the keyboard opening</li>
+ * <li>animations are turned off, i.e. the system animator duration scale is 0</li>
+ * </ul>
+ * Degradations are reported through {@link #setOnDegradeListener(OnDegradeListener)} and
+ * counted, see {@link #getDegradedCount()}. Frame times are only watched from API 16, earlier
+ * versions always play the transitions.
+ */
+public class FrameBudgetLabelAnimator implements CancelableLabelAnimator {
+
+	/**
+	 * Reason passed to {@link OnDegradeListener#onDegrade(View, int)}
+	 */
+	public static final int REASON_JANK = 0;
+	public static final int REASON_ANIMATIONS_OFF = 1;
+
+	// Frame times are kept watched for this long after the last focus change or transition
+	private static final long WATCH_DURATION_MS = 2000;
+
+	private static final long DEFAULT_FRAME_BUDGET_NS = 1000000000L / 60;
+
+	/**
+	 * Notified every time a transition is replaced by an instant show/hide
+	 */
+	public interface OnDegradeListener {
+		/**
+		 * @param label  label shown or hidden without animation
+		 * @param reason {@link #REASON_JANK} or {@link #REASON_ANIMATIONS_OFF}
+		 */
+		public void onDegrade(View label, int reason);
+	}
+
+	private final LabelAnimator mAnimator;
+	private OnDegradeListener mOnDegradeListener;
+
+	// Created on the first watch, from API 16 only
+	private FrameWatcher mFrameWatcher;
+	private int mJankThreshold = 2;
+	private long mFrameBudget = DEFAULT_FRAME_BUDGET_NS;
+
+	// Duration scale read when a watch starts, the setting rarely changes
+	private float mDurationScale = 1;
+
+	private int mTransitionCount = 0;
+	private int mDegradedCount = 0;
+
+	public FrameBudgetLabelAnimator() {
+		this(new ReusableLabelAnimator());
+	}
+
+	/**
+	 * @param animator animator playing the transitions while within budget
+	 */
+	public FrameBudgetLabelAnimator(LabelAnimator animator) {
+		mAnimator = animator != null ? animator : new ReusableLabelAnimator();
+	}
+
+	/**
+	 * @param frames number of late frames, among the last 8 ones, from which transitions are
+	 *               skipped. 2 by default.
+	 */
+	public void setJankThreshold(int frames) {
+		mJankThreshold = Math.max(frames, 1);
+	}
+
+	/**
+	 * @param frameBudgetMs time a frame may take, 1000 / 60 ms by default
+	 */
+	public void setFrameBudget(float frameBudgetMs) {
+		mFrameBudget = (long) (frameBudgetMs * 1000000);
+	}
+
+	public void setOnDegradeListener(OnDegradeListener listener) {
+		mOnDegradeListener = listener;
+	}
+
+	/**
+	 * @return number of transitions requested so far
+	 */
+	public int getTransitionCount() {
+		return mTransitionCount;
+	}
+
+	/**
+	 * @return number of transitions replaced by an instant show/hide so far
+	 */
+	public int getDegradedCount() {
+		return mDegradedCount;
+	}
+
+	@Override
+	public void onDisplayLabel(final View label, int duration) {
+		int reason = checkBudget(label);
+		if (reason < 0) {
+			mAnimator.onDisplayLabel(label, duration);
+		} else {
+			degrade(label, true, reason);
+		}
+	}
+
+	@Override
+	public void onHideLabel(final View label, int duration) {
+		int reason = checkBudget(label);
+		if (reason < 0) {
+			mAnimator.onHideLabel(label, duration);
+		} else {
+			degrade(label, false, reason);
+		}
+	}
+
+	@Override
+	public void onCancelLabel(final View label) {
+		if (mAnimator instanceof CancelableLabelAnimator) {
+			((CancelableLabelAnimator) mAnimator).onCancelLabel(label);
+		}
+	}
+
+	/**
+	 * Starts or extends the watch of frame times, ahead of the transitions which will check them
+	 */
+	void watchFrames(View view) {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+			return;
+		}
+
+		if (mFrameWatcher == null) {
+			mFrameWatcher = new FrameWatcher();
+		}
+		if (!mFrameWatcher.isWatching()) {
+			mDurationScale = BaseLabelAnimator.getDurationScale(view.getContext().getContentResolver());
+		}
+		mFrameWatcher.watch();
+	}
+
+	/**
+	 * Stops the transition of the label, if any, and puts it in the shown or hidden state of the
+	 * wrapped animator right away
+	 */
+	void snap(View label, boolean show) {
+		if (mAnimator instanceof BaseLabelAnimator) {
+			((BaseLabelAnimator) mAnimator).snap(label, show);
+			return;
+		}
+		onCancelLabel(label);
+		// Back to the natural values, whatever the transition animates
+		LabelTransitionSpec.reset(label);
+		label.setVisibility(show ? View.VISIBLE : View.INVISIBLE);
+	}
+
+	/**
+	 * @return the reason to skip the transition, or -1 to play it
+	 */
+	private int checkBudget(View label) {
+		mTransitionCount++;
+
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+			return -1;
+		}
+
+		// Frames recorded since the focus change or the previous transitions, if still watched
+		boolean janky = mFrameWatcher != null && mFrameWatcher.countLateFrames(mFrameBudget) >= mJankThreshold;
+		watchFrames(label);
+
+		if (mDurationScale == 0) {
+			return REASON_ANIMATIONS_OFF;
+		}
+		return janky ? REASON_JANK : -1;
+	}
+
+	private void degrade(View label, boolean show, int reason) {
+		mDegradedCount++;
+
+		snap(label, show);
+
+		if (mOnDegradeListener != null) {
+			mOnDegradeListener.onDegrade(label, reason);
+		}
+		FloatLabelMetrics.transitionSkipped(label, show);
+	}
+
+	/**
+	 * Records whether each of the last frames was late, for as long as the field is in use
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private static class FrameWatcher implements Choreographer.FrameCallback {
+		static final int WINDOW = 8;
+
+		private final Choreographer mChoreographer = Choreographer.getInstance();
+
+		// Ring buffer of the last frame intervals
+		private final long[] mIntervals = new long[WINDOW];
+		private int mNext = 0;
+		private int mCount = 0;
+
+		private long mLastFrameTime = 0;
+		private long mWatchUntil = 0;
+		private boolean mWatching = false;
+
+		boolean isWatching() {
+			return mWatching;
+		}
+
+		void watch() {
+			mWatchUntil = SystemClock.uptimeMillis() + WATCH_DURATION_MS;
+			if (!mWatching) {
+				mWatching = true;
+				mLastFrameTime = 0;
+				mCount = 0;
+				mChoreographer.postFrameCallback(this);
+			}
+		}
+
+		int countLateFrames(long budget) {
+			// Frames recorded before the last pause are stale
+			if (!mWatching) {
+				return 0;
+			}
+			int late = 0;
+			for (int i = 0; i < mCount; i++) {
+				// A frame is late once it missed the next vsync
+				if (mIntervals[i] > budget + budget / 2) {
+					late++;
+				}
+			}
+			return late;
+		}
+
+		@Override
+		public void doFrame(long frameTimeNanos) {
+			if (mLastFrameTime != 0) {
+				mIntervals[mNext] = frameTimeNanos - mLastFrameTime;
+				mNext = (mNext + 1) % WINDOW;
+				mCount = Math.min(mCount + 1, WINDOW);
+			}
+			mLastFrameTime = frameTimeNanos;
+
+			if (SystemClock.uptimeMillis() < mWatchUntil) {
+				mChoreographer.postFrameCallback(this);
+			} else {
+				mWatching = false;
+			}
+		}
+	}
+}
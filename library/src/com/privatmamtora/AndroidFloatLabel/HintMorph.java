@@ -0,0 +1,270 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.BoringLayout;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.Gravity;
+import android.view.View;
+import android.widget.EditText;
+
+/**
+ * Morphs the hint of the EditText into the label: the hint shrinks and moves up to the label
+ * position, instead of the label fading in while the hint disappears.
+ * <p/>
+ * The hint text is laid out once at the EditText text size and once at the label text size.
+ * Each frame only interpolates the position, scale and color, and draws the closest of the two
+ * layouts through the canvas matrix, so the transition never changes a text size and never
+ * requests a layout. The {@link FloatLabel} hosting it draws it from dispatchDraw, over its
+ * children; the EditText hint itself is made transparent.
+ */
+class HintMorph extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+
+	private final View mHost;
+
+	private final Side mExpanded = new Side();
+	private final Side mCollapsed = new Side();
+
+	private CharSequence mText = "";
+
+	// 0 with the hint in the EditText, 1 with the hint in the label position
+	private float mFraction;
+	private float mStartFraction;
+	private boolean mCollapse;
+
+	// Created on the first transition and reused afterwards
+	private ValueAnimator mAnimator;
+	private long mDefaultDuration;
+	private View mLabel;
+	private boolean mCanceling;
+
+	// Hint colors of the EditText, put back when the morph is removed
+	private ColorStateList mHintColors;
+
+	HintMorph(View host) {
+		mHost = host;
+	}
+
+	/**
+	 * Takes the hint drawing over from the EditText
+	 */
+	void attach(EditText editText) {
+		mHintColors = editText.getHintTextColors();
+		// Only invalidates the EditText, its hint keeps the space it takes
+		editText.setHintTextColor(Color.TRANSPARENT);
+	}
+
+	void detach(EditText editText) {
+		if (mHintColors != null) {
+			editText.setHintTextColor(mHintColors);
+			mHintColors = null;
+		}
+	}
+
+	void setText(CharSequence text) {
+		text = text == null ? "" : text;
+		if (!TextUtils.equals(text, mText)) {
+			mText = text;
+			mExpanded.mLayout = null;
+			mCollapsed.mLayout = null;
+			mHost.invalidate();
+		}
+	}
+
+	/**
+	 * @param label    view standing for the label, reported to {@link FloatLabelMetrics}
+	 * @param duration duration of a full transition in ms, -1 for the default
+	 */
+	void animateTo(View label, boolean collapse, int duration) {
+		ensureAnimator();
+		float target = collapse ? 1 : 0;
+
+		if (mAnimator.isRunning()) {
+			// Already heading there
+			if (mCollapse == collapse) {
+				return;
+			}
+			// Reverse from the current frame
+			cancel();
+		} else if (mFraction == target) {
+			return;
+		}
+
+		mLabel = label;
+		mCollapse = collapse;
+		mStartFraction = mFraction;
+
+		// Only play the part of the transition that is left
+		long fullDuration = duration >= 0 ? duration : mDefaultDuration;
+		mAnimator.setDuration((long) (fullDuration * Math.abs(target - mFraction)));
+
+		FloatLabelMetrics.transitionStarted(label, collapse);
+		mAnimator.start();
+	}
+
+	void snapTo(boolean collapse) {
+		cancel();
+		mCollapse = collapse;
+		mFraction = collapse ? 1 : 0;
+		mHost.invalidate();
+	}
+
+	void cancel() {
+		if (mAnimator != null && mAnimator.isRunning()) {
+			FloatLabelMetrics.transitionCanceled(mLabel);
+			mCanceling = true;
+			mAnimator.cancel();
+			mCanceling = false;
+		}
+	}
+
+	private void ensureAnimator() {
+		if (mAnimator == null) {
+			mAnimator = ValueAnimator.ofFloat(0, 1);
+			mDefaultDuration = mAnimator.getDuration();
+			mAnimator.addUpdateListener(this);
+			mAnimator.addListener(this);
+		}
+	}
+
+	@Override
+	public void onAnimationUpdate(ValueAnimator animation) {
+		// The animated fraction is a primitive, unlike the animated value
+		float target = mCollapse ? 1 : 0;
+		mFraction = mStartFraction + (target - mStartFraction) * animation.getAnimatedFraction();
+		FloatLabelMetrics.animationFrame(mLabel);
+		mHost.invalidate();
+	}
+
+	@Override
+	public void onAnimationEnd(Animator animation) {
+		if (!mCanceling) {
+			mFraction = mCollapse ? 1 : 0;
+			mHost.invalidate();
+		}
+	}
+
+	/**
+	 * Draws the hint between the EditText and the label positions
+	 *
+	 * @param labelPaint   paint of the label, its size and typeface are used when collapsed
+	 * @param labelColors  text colors of the label
+	 * @param labelGravity gravity of the label text
+	 */
+	void draw(Canvas canvas, EditText editText, View label, TextPaint labelPaint, ColorStateList labelColors,
+			int labelGravity) {
+		if (mText.length() == 0 || mHintColors == null) {
+			return;
+		}
+
+		// Hint area of the EditText, as its own hint would be drawn
+		final int expandedWidth = editText.getWidth() - editText.getCompoundPaddingLeft() - editText.getCompoundPaddingRight();
+		final Layout expanded = mExpanded.ensureLayout(mText, editText.getPaint(), expandedWidth,
+				editText.getGravity());
+		final float expandedX = editText.getLeft() + editText.getCompoundPaddingLeft() + expanded.getLineLeft(0);
+		float expandedY = editText.getTop() + editText.getExtendedPaddingTop();
+		final int hintHeight = editText.getHeight() - editText.getExtendedPaddingTop() - editText.getExtendedPaddingBottom();
+		final int verticalGravity = editText.getGravity() & Gravity.VERTICAL_GRAVITY_MASK;
+		if (verticalGravity == Gravity.CENTER_VERTICAL) {
+			expandedY += (hintHeight - expanded.getHeight()) / 2;
+		} else if (verticalGravity == Gravity.BOTTOM) {
+			expandedY += hintHeight - expanded.getHeight();
+		}
+
+		// Text area of the label
+		final int collapsedWidth = label.getWidth() - label.getPaddingLeft() - label.getPaddingRight();
+		final Layout collapsed = mCollapsed.ensureLayout(mText, labelPaint, collapsedWidth, labelGravity);
+		final float collapsedX = label.getLeft() + label.getPaddingLeft() + collapsed.getLineLeft(0);
+		final float collapsedY = label.getTop() + label.getPaddingTop();
+
+		final float fraction = mFraction;
+		final int hintColor = mHintColors.getColorForState(editText.getDrawableState(), mHintColors.getDefaultColor());
+		final int labelColor = labelColors.getColorForState(label.getDrawableState(), labelColors.getDefaultColor());
+		final int color = ColorRamp.blend(hintColor, labelColor, fraction);
+		if (Color.alpha(color) == 0) {
+			return;
+		}
+
+		// Whichever layout is closest to the current size is scaled to it
+		final float expandedSize = mExpanded.mPaint.getTextSize();
+		final float collapsedSize = mCollapsed.mPaint.getTextSize();
+		final float size = expandedSize + (collapsedSize - expandedSize) * fraction;
+		final Side side = fraction < 0.5f ? mExpanded : mCollapsed;
+		final Layout layout = side == mExpanded ? expanded : collapsed;
+		final float scale = size / side.mPaint.getTextSize();
+
+		side.mPaint.setColor(color);
+		side.mPaint.drawableState = editText.getDrawableState();
+
+		final int saveCount = canvas.save();
+		// Moves the start of the text, whatever the alignment within each layout
+		canvas.translate(expandedX + (collapsedX - expandedX) * fraction,
+				expandedY + (collapsedY - expandedY) * fraction);
+		canvas.scale(scale, scale);
+		canvas.translate(-layout.getLineLeft(0), 0);
+		layout.draw(canvas);
+		canvas.restoreToCount(saveCount);
+	}
+
+	/**
+	 * The hint laid out at one of the two sizes, rebuilt only when the text, the paint of the
+	 * view it mirrors or the available width change
+	 */
+	private static class Side {
+		final TextPaint mPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+		final BoringLayout.Metrics mBoringMetrics = new BoringLayout.Metrics();
+		Layout mLayout;
+		int mWidth = -1;
+		float mTextSize;
+		Typeface mTypeface;
+		int mGravity;
+
+		Layout ensureLayout(CharSequence text, TextPaint source, int width, int gravity) {
+			width = Math.max(width, 0);
+			if (mLayout != null && width == mWidth && source.getTextSize() == mTextSize
+					&& source.getTypeface() == mTypeface && gravity == mGravity) {
+				return mLayout;
+			}
+			mPaint.set(source);
+			mWidth = width;
+			mTextSize = source.getTextSize();
+			mTypeface = source.getTypeface();
+			mGravity = gravity;
+			Layout.Alignment alignment = getAlignment(gravity);
+
+			// Single line, like the hint and the label
+			BoringLayout.Metrics boring = BoringLayout.isBoring(text, mPaint, mBoringMetrics);
+			if (boring != null) {
+				mLayout = BoringLayout.make(text, mPaint, width, alignment, 1, 0,
+						boring, true, TextUtils.TruncateAt.END, width);
+			} else {
+				mLayout = new StaticLayout(TextUtils.ellipsize(text, mPaint, width, TextUtils.TruncateAt.END),
+						mPaint, width, alignment, 1, 0, true);
+			}
+			return mLayout;
+		}
+
+		private static Layout.Alignment getAlignment(int gravity) {
+			switch (gravity & Gravity.RELATIVE_HORIZONTAL_GRAVITY_MASK) {
+				case Gravity.CENTER_HORIZONTAL:
+					return Layout.Alignment.ALIGN_CENTER;
+
+				case Gravity.RIGHT:
+				case Gravity.END:
+					return Layout.Alignment.ALIGN_OPPOSITE;
+
+				default:
+					return Layout.Alignment.ALIGN_NORMAL;
+			}
+		}
+	}
+}
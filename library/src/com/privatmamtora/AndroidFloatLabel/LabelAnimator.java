@@ -4,9 +4,22 @@ import android.view.View;
 
 /**
  * Created by Privat Krish Mamtora Atmaram
+ * <p/>
+ * {@link FloatLabel} only calls the animator when its EditText flips between empty and non-empty,
+ * once per frame at most, but it may do so while the previous transition is still running.
+ * Implementations should then reverse from the label's current frame rather than restart from
+ * the hidden/shown values.
  */
 public interface LabelAnimator {
 
+	/**
+	 * Hardware layer modes of the library animators. With LAYER_AUTO (the default), the label
+	 * is put on a hardware layer while it animates only if it has a shadow or a custom typeface.
+	 */
+	public static final int LAYER_AUTO = 0;
+	public static final int LAYER_ALWAYS = 1;
+	public static final int LAYER_NEVER = 2;
+
 	/**
 	 * Called when the label should become visible
 	 *
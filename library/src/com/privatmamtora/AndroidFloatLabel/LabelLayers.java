@@ -0,0 +1,52 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.view.View;
+
+/**
+ * Promotes a label to a hardware layer for the length of a transition, so that fading and
+ * sliding it only re-composites the layer instead of re-rendering the text on every frame.
+ * Worth it when the text is expensive to draw, i.e. with a shadow layer or a custom typeface.
+ */
+final class LabelLayers {
+
+	private LabelLayers() {
+	}
+
+	/**
+	 * Marks whether the label is expensive to draw, read by {@link LabelAnimator#LAYER_AUTO}
+	 */
+	static void setExpensive(View label, boolean expensive) {
+		label.setTag(R.id.fl_label_expensive, expensive ? Boolean.TRUE : null);
+	}
+
+	/**
+	 * Called when a transition starts. Does nothing if the label already has a layer,
+	 * set by this class or by the app.
+	 *
+	 * @param mode one of the LabelAnimator LAYER_ constants
+	 */
+	static void begin(View label, int mode) {
+		if (mode == LabelAnimator.LAYER_NEVER
+				|| (mode == LabelAnimator.LAYER_AUTO && label.getTag(R.id.fl_label_expensive) == null)) {
+			return;
+		}
+		// Drawn labels are drawn by hand by their FloatLabel, a layer would never be used
+		if (label.getParent() == null || !label.isHardwareAccelerated()) {
+			return;
+		}
+		if (label.getLayerType() == View.LAYER_TYPE_NONE) {
+			label.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+			label.setTag(R.id.fl_label_layer, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Called when a transition ends or is canceled, drops the layer set by {@link #begin}
+	 */
+	static void end(View label) {
+		if (label.getTag(R.id.fl_label_layer) != null) {
+			label.setTag(R.id.fl_label_layer, null);
+			label.setLayerType(View.LAYER_TYPE_NONE, null);
+		}
+	}
+}
@@ -0,0 +1,613 @@
+/*
+ * Copyright (C) 2014 Privat Krish Mamtora Atmaram
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Typeface;
+import android.text.TextUtils;
+import android.util.SparseArray;
+
+import java.util.WeakHashMap;
+
+/**
+ * Immutable set of label attributes, resolved once and shared by any number of
+ * {@link FloatLabel}s, which apply it in a single pass (see {@link FloatLabel#setLabelStyle(LabelStyle)}).
+ * <p/>
+ * Styles are either built in code with a {@link Builder}, or resolved from a style resource
+ * holding FloatLabel attributes with {@link #fromResource(Context, int)} (R.styleable#FloatLabel_flLabelStyle
+ * in XML). Resolved styles are cached per theme and style resource, so the attributes of a
+ * repeated field style are only parsed once.
+ */
+public final class LabelStyle {
+
+	// Enum for the "typeface" XML parameter.
+	static final int SANS = 1;
+	static final int SERIF = 2;
+	static final int MONOSPACE = 3;
+
+	static final int DEFAULT_TEXT_SIZE = 14;
+
+	/**
+	 * Style used when no attribute is set
+	 */
+	public static final LabelStyle DEFAULT = new Builder().build();
+
+	private static final WeakHashMap<Resources.Theme, SparseArray<LabelStyle>> sCache =
+			new WeakHashMap<Resources.Theme, SparseArray<LabelStyle>>();
+
+	// Text Appearance
+	//
+	final ColorStateList mTextColor;
+	final int mTextSize;
+	final int mTypefaceIndex;
+	final String mFontFamily;
+	final String mFontAsset;
+	final int mTextStyle;
+	final boolean mAllCaps;
+	final int mShadowColor;
+	final float mShadowDx;
+	final float mShadowDy;
+	final float mShadowRadius;
+
+	final int mPaddingLeft;
+	final int mPaddingRight;
+	final int mPaddingTop;
+	final int mPaddingBottom;
+
+	final int mGravity;
+	final CharSequence mText;
+	final TextUtils.TruncateAt mEllipsize;
+	final boolean mScrollHorizontally;
+	final boolean mIncludeFontPadding;
+	final float mTextScaleX;
+
+	final int mGap;
+	final int mAnimationDuration;
+	final boolean mDrawLabel;
+	final LabelTransitionSpec mTransition;
+	final boolean mMorphHint;
+
+	// Helper/error line below the EditText
+	final LabelStyle mHelperStyle;
+	final CharSequence mHelperText;
+	final ColorStateList mErrorColor;
+	final int mCounterMaxLength;
+
+	// Set through Builder#setTypeface, takes precedence over the font attributes
+	final Typeface mCustomTypeface;
+
+	// Resolved once, on first use
+	private Typeface mTypeface;
+	private int mTypefaceStyle;
+	private volatile boolean mTypefaceResolved;
+
+	private LabelStyle(Builder b) {
+		mTextColor = b.mTextColor;
+		mTextSize = b.mTextSize;
+		mTypefaceIndex = b.mTypefaceIndex;
+		mFontFamily = b.mFontFamily;
+		mFontAsset = b.mFontAsset;
+		mTextStyle = b.mTextStyle;
+		mAllCaps = b.mAllCaps;
+		mShadowColor = b.mShadowColor;
+		mShadowDx = b.mShadowDx;
+		mShadowDy = b.mShadowDy;
+		mShadowRadius = b.mShadowRadius;
+		mPaddingLeft = b.mPaddingLeft;
+		mPaddingRight = b.mPaddingRight;
+		mPaddingTop = b.mPaddingTop;
+		mPaddingBottom = b.mPaddingBottom;
+		mGravity = b.mGravity;
+		mText = b.mText;
+		mEllipsize = b.mEllipsize;
+		mScrollHorizontally = b.mScrollHorizontally;
+		mIncludeFontPadding = b.mIncludeFontPadding;
+		mTextScaleX = b.mTextScaleX;
+		mGap = b.mGap;
+		mAnimationDuration = b.mAnimationDuration;
+		mDrawLabel = b.mDrawLabel;
+		mTransition = b.mTransition;
+		mMorphHint = b.mMorphHint;
+		mHelperStyle = b.mHelperStyle;
+		mHelperText = b.mHelperText;
+		mErrorColor = b.mErrorColor;
+		mCounterMaxLength = b.mCounterMaxLength;
+		mCustomTypeface = b.mTypeface;
+	}
+
+	/**
+	 * Resolves a style resource holding FloatLabel attributes (flTextSize, flTextAppearance, ...).
+	 * The result is cached per theme and style resource.
+	 *
+	 * @param context         context whose theme resolves the style
+	 * @param styleResourceId style resource, e.g. R.style.MyLabel
+	 */
+	public static LabelStyle fromResource(Context context, int styleResourceId) {
+		Resources.Theme theme = context.getTheme();
+		synchronized (sCache) {
+			SparseArray<LabelStyle> styles = sCache.get(theme);
+			if (styles == null) {
+				styles = new SparseArray<LabelStyle>();
+				sCache.put(theme, styles);
+			}
+
+			LabelStyle style = styles.get(styleResourceId);
+			if (style == null) {
+				final TypedArray a = context.obtainStyledAttributes(styleResourceId, R.styleable.FloatLabel);
+				style = new Builder().applyAttributes(context, a).build();
+				a.recycle();
+
+				styles.put(styleResourceId, style);
+			}
+			return style;
+		}
+	}
+
+	/**
+	 * @return the typeface to apply, resolved through {@link TypefaceCache} on first use
+	 */
+	Typeface getTypeface(Context context) {
+		if (!mTypefaceResolved) {
+			resolveTypeface(context);
+		}
+		return mTypeface;
+	}
+
+	/**
+	 * @return the style to apply together with {@link #getTypeface(Context)}, or -1 if the
+	 * typeface already has the style
+	 */
+	int getTypefaceStyle(Context context) {
+		if (!mTypefaceResolved) {
+			resolveTypeface(context);
+		}
+		return mTypefaceStyle;
+	}
+
+	private synchronized void resolveTypeface(Context context) {
+		if (mTypefaceResolved) {
+			return;
+		}
+
+		Typeface tf = mCustomTypeface;
+		int style = mTextStyle;
+
+		if (tf == null && mFontAsset != null) {
+			tf = TypefaceCache.getFromAsset(context, mFontAsset);
+		}
+		if (tf == null && mFontFamily != null) {
+			tf = TypefaceCache.get(mFontFamily, mTextStyle);
+			if (tf != null) {
+				style = -1;
+			}
+		}
+		if (tf == null) {
+			switch (mTypefaceIndex) {
+				case SANS:
+					tf = Typeface.SANS_SERIF;
+					break;
+
+				case SERIF:
+					tf = Typeface.SERIF;
+					break;
+
+				case MONOSPACE:
+					tf = Typeface.MONOSPACE;
+					break;
+			}
+		}
+
+		mTypeface = tf;
+		mTypefaceStyle = style;
+		mTypefaceResolved = true;
+	}
+
+	/**
+	 * @return the label text color, or the library default (R.color.floatlabel_default)
+	 */
+	ColorStateList getTextColor(Context context) {
+		return mTextColor != null ? mTextColor : context.getResources().getColorStateList(R.color.floatlabel_default);
+	}
+
+	/**
+	 * @return the error line text color, or the library default (R.color.floatlabel_error)
+	 */
+	ColorStateList getErrorColor(Context context) {
+		return mErrorColor != null ? mErrorColor : context.getResources().getColorStateList(R.color.floatlabel_error);
+	}
+
+	/**
+	 * Builds {@link LabelStyle}s in code. Setters mirror the FloatLabel XML attributes.
+	 */
+	public static final class Builder {
+		private ColorStateList mTextColor = null;
+		private int mTextSize = DEFAULT_TEXT_SIZE;
+		private int mTypefaceIndex = -1;
+		private String mFontFamily = null;
+		private String mFontAsset = null;
+		private int mTextStyle = -1;
+		private Typeface mTypeface = null;
+		private boolean mAllCaps = false;
+		private int mShadowColor = 0;
+		private float mShadowDx = 0;
+		private float mShadowDy = 0;
+		private float mShadowRadius = 0;
+
+		private int mPadding = 0;
+		private int mPaddingLeft = 0;
+		private int mPaddingRight = 0;
+		private int mPaddingTop = 0;
+		private int mPaddingBottom = 0;
+
+		private int mGravity = 0x03;
+		private CharSequence mText = "";
+		private TextUtils.TruncateAt mEllipsize = TextUtils.TruncateAt.END;
+		private boolean mScrollHorizontally = false;
+		private boolean mIncludeFontPadding = true;
+		private float mTextScaleX = 1.0f;
+
+		private int mGap = 0;
+		private int mAnimationDuration = -1;
+		private boolean mDrawLabel = false;
+		private LabelTransitionSpec mTransition = null;
+		private boolean mMorphHint = false;
+		private LabelStyle mHelperStyle = null;
+		private CharSequence mHelperText = null;
+		private ColorStateList mErrorColor = null;
+		private int mCounterMaxLength = 0;
+
+		public Builder() {
+		}
+
+		/**
+		 * @param style style to start from
+		 */
+		public Builder(LabelStyle style) {
+			mTextColor = style.mTextColor;
+			mTextSize = style.mTextSize;
+			mTypefaceIndex = style.mTypefaceIndex;
+			mFontFamily = style.mFontFamily;
+			mFontAsset = style.mFontAsset;
+			mTextStyle = style.mTextStyle;
+			mAllCaps = style.mAllCaps;
+			mShadowColor = style.mShadowColor;
+			mShadowDx = style.mShadowDx;
+			mShadowDy = style.mShadowDy;
+			mShadowRadius = style.mShadowRadius;
+			mPaddingLeft = style.mPaddingLeft;
+			mPaddingRight = style.mPaddingRight;
+			mPaddingTop = style.mPaddingTop;
+			mPaddingBottom = style.mPaddingBottom;
+			mGravity = style.mGravity;
+			mText = style.mText;
+			mEllipsize = style.mEllipsize;
+			mScrollHorizontally = style.mScrollHorizontally;
+			mIncludeFontPadding = style.mIncludeFontPadding;
+			mTextScaleX = style.mTextScaleX;
+			mGap = style.mGap;
+			mAnimationDuration = style.mAnimationDuration;
+			mDrawLabel = style.mDrawLabel;
+			mTransition = style.mTransition;
+			mMorphHint = style.mMorphHint;
+			mHelperStyle = style.mHelperStyle;
+			mHelperText = style.mHelperText;
+			mErrorColor = style.mErrorColor;
+			mCounterMaxLength = style.mCounterMaxLength;
+			mTypeface = style.mCustomTypeface;
+		}
+
+		public Builder setTextColor(ColorStateList colors) {
+			mTextColor = colors;
+			return this;
+		}
+
+		/**
+		 * @param size same unit as {@link FloatLabel#setLabelSize(float)}
+		 */
+		public Builder setTextSize(int size) {
+			mTextSize = size;
+			return this;
+		}
+
+		/**
+		 * @param tf    typeface, e.g. from {@link TypefaceCache}
+		 * @param style style applied on top of it, see {@link Typeface#NORMAL}
+		 */
+		public Builder setTypeface(Typeface tf, int style) {
+			mTypeface = tf;
+			mTextStyle = style;
+			return this;
+		}
+
+		public Builder setFontFamily(String familyName) {
+			mFontFamily = familyName;
+			return this;
+		}
+
+		public Builder setFontAsset(String assetPath) {
+			mFontAsset = assetPath;
+			return this;
+		}
+
+		public Builder setTextStyle(int style) {
+			mTextStyle = style;
+			return this;
+		}
+
+		public Builder setAllCaps(boolean allCaps) {
+			mAllCaps = allCaps;
+			return this;
+		}
+
+		public Builder setShadowLayer(float radius, float dx, float dy, int color) {
+			mShadowRadius = radius;
+			mShadowDx = dx;
+			mShadowDy = dy;
+			mShadowColor = color;
+			return this;
+		}
+
+		/**
+		 * Left/right are used as start/end from JELLY_BEAN_MR1, like flPaddingLeft/flPaddingRight
+		 */
+		public Builder setPadding(int left, int top, int right, int bottom) {
+			mPaddingLeft = left;
+			mPaddingTop = top;
+			mPaddingRight = right;
+			mPaddingBottom = bottom;
+			return this;
+		}
+
+		public Builder setGravity(int gravity) {
+			mGravity = gravity;
+			return this;
+		}
+
+		public Builder setText(CharSequence text) {
+			mText = text == null ? "" : text;
+			return this;
+		}
+
+		public Builder setEllipsize(TextUtils.TruncateAt where) {
+			mEllipsize = where;
+			return this;
+		}
+
+		public Builder setHorizontallyScrolling(boolean whether) {
+			mScrollHorizontally = whether;
+			return this;
+		}
+
+		public Builder setIncludeFontPadding(boolean includepad) {
+			mIncludeFontPadding = includepad;
+			return this;
+		}
+
+		public Builder setTextScaleX(float size) {
+			mTextScaleX = size;
+			return this;
+		}
+
+		public Builder setGapSize(int gap) {
+			mGap = gap;
+			return this;
+		}
+
+		public Builder setAnimationDuration(int duration) {
+			mAnimationDuration = duration;
+			return this;
+		}
+
+		/**
+		 * Only used when a FloatLabel is created, see R.styleable#FloatLabel_flDrawLabel
+		 */
+		public Builder setDrawLabel(boolean drawLabel) {
+			mDrawLabel = drawLabel;
+			return this;
+		}
+
+		/**
+		 * @param transition transition played by the label, null to keep the LabelAnimator
+		 *                   of the FloatLabel
+		 */
+		public Builder setTransition(LabelTransitionSpec transition) {
+			mTransition = transition;
+			return this;
+		}
+
+		/**
+		 * @param morphHint true to morph the hint into the label, see FloatLabel#setMorphHint
+		 */
+		public Builder setMorphHint(boolean morphHint) {
+			mMorphHint = morphHint;
+			return this;
+		}
+
+		/**
+		 * @param helperStyle style of the helper/error line, null for no line unless a helper
+		 *                    text or an error is set. Only its text attributes are used.
+		 */
+		public Builder setHelperStyle(LabelStyle helperStyle) {
+			mHelperStyle = helperStyle;
+			return this;
+		}
+
+		public Builder setHelperText(CharSequence helperText) {
+			mHelperText = helperText;
+			return this;
+		}
+
+		/**
+		 * @param colors color of the helper line while it shows an error, null for the default
+		 */
+		public Builder setErrorColor(ColorStateList colors) {
+			mErrorColor = colors;
+			return this;
+		}
+
+		/**
+		 * @param maxLength length shown by the "n / max" counter of the helper line, 0 (the
+		 *                  default) for no counter
+		 */
+		public Builder setCounterMaxLength(int maxLength) {
+			mCounterMaxLength = maxLength;
+			return this;
+		}
+
+		public LabelStyle build() {
+			return new LabelStyle(this);
+		}
+
+		/**
+		 * Reads the FloatLabel attributes set in the given array, the flTextAppearance first so
+		 * that the attributes set directly override it.
+		 */
+		Builder applyAttributes(Context context, TypedArray a) {
+			int styleResId = a.getResourceId(R.styleable.FloatLabel_flTextAppearance, -1);
+			applyTextAppearance(context, styleResId);
+
+			applyCustomAttributes(context, a);
+			return this;
+		}
+
+		private void applyTextAppearance(Context context, int styleResourceId) {
+			if (styleResourceId != -1) {
+				final TypedArray appearance = context.obtainStyledAttributes(styleResourceId, R.styleable.TextAppearance);
+
+				mTextColor = appearance.getColorStateList(R.styleable.TextAppearance_android_textColor);
+				mTextSize = appearance.getDimensionPixelSize(R.styleable.TextAppearance_android_textSize, mTextSize);
+				mTypefaceIndex = appearance.getInt(R.styleable.TextAppearance_android_typeface, mTypefaceIndex);
+				mFontFamily = appearance.getString(R.styleable.TextAppearance_android_fontFamily);
+				mTextStyle = appearance.getInt(R.styleable.TextAppearance_android_textStyle, mTextStyle);
+				mAllCaps = appearance.getBoolean(R.styleable.TextAppearance_android_textAllCaps, mAllCaps);
+				mShadowColor = appearance.getInt(R.styleable.TextAppearance_android_shadowColor, mShadowColor);
+				mShadowDx = appearance.getFloat(R.styleable.TextAppearance_android_shadowDx, mShadowDx);
+				mShadowDy = appearance.getFloat(R.styleable.TextAppearance_android_shadowDy, mShadowDy);
+				mShadowRadius = appearance.getFloat(R.styleable.TextAppearance_android_shadowRadius, mShadowRadius);
+
+				appearance.recycle();
+			}
+		}
+
+		private void applyCustomAttributes(Context context, TypedArray a) {
+			int n = a.getIndexCount();
+			for (int i = 0; i < n; i++) {
+				int attr = a.getIndex(i);
+
+				//TextAppearance Attributes
+				if (attr == R.styleable.FloatLabel_flTextColor) {
+					mTextColor = a.getColorStateList(attr);
+
+				} else if (attr == R.styleable.FloatLabel_flTextSize) {
+					mTextSize = a.getDimensionPixelSize(attr, mTextSize);
+
+				} else if (attr == R.styleable.FloatLabel_flTypeface) {
+					mTypefaceIndex = a.getInt(attr, mTypefaceIndex);
+
+				} else if (attr == R.styleable.FloatLabel_flTextStyle) {
+					mTextStyle = a.getInt(attr, mTextStyle);
+
+				} else if (attr == R.styleable.FloatLabel_flFontFamily) {
+					mFontFamily = a.getString(attr);
+
+				} else if (attr == R.styleable.FloatLabel_flFontAsset) {
+					mFontAsset = a.getString(attr);
+
+				} else if (attr == R.styleable.FloatLabel_flTextAllCaps) {
+					mAllCaps = a.getBoolean(attr, mAllCaps);
+
+				} else if (attr == R.styleable.FloatLabel_flShadowColor) {
+					mShadowColor = a.getInt(attr, mShadowColor);
+
+				} else if (attr == R.styleable.FloatLabel_flShadowDx) {
+					mShadowDx = a.getFloat(attr, mShadowDx);
+
+				} else if (attr == R.styleable.FloatLabel_flShadowDy) {
+					mShadowDy = a.getFloat(attr, mShadowDy);
+
+				} else if (attr == R.styleable.FloatLabel_flShadowRadius) {
+					mShadowRadius = a.getFloat(attr, mShadowRadius);
+
+					//TextView Attributes
+				} else if (attr == R.styleable.FloatLabel_flGravity) {
+					mGravity = a.getInt(attr, 0x03);
+
+				} else if (attr == R.styleable.FloatLabel_flText) {
+					mText = a.getText(attr);
+
+				} else if (attr == R.styleable.FloatLabel_flScrollHorizontally) {
+					mScrollHorizontally = a.getBoolean(attr, false);
+
+				} else if (attr == R.styleable.FloatLabel_flEllipsize) {
+					mEllipsize = getEllipsize(a.getInt(attr, -1));
+
+				} else if (attr == R.styleable.FloatLabel_flIncludeFontPadding) {
+					mIncludeFontPadding = a.getBoolean(attr, true);
+
+				} else if (attr == R.styleable.FloatLabel_flTextScaleX) {
+					mTextScaleX = a.getFloat(attr, 1.0f);
+
+					//View Attributes
+				} else if (attr == R.styleable.FloatLabel_flPadding) {
+					mPadding = a.getDimensionPixelSize(attr, 0);
+				} else if (attr == R.styleable.FloatLabel_flPaddingLeft) {
+					mPaddingLeft = a.getDimensionPixelSize(attr, mPadding);
+				} else if (attr == R.styleable.FloatLabel_flPaddingRight) {
+					mPaddingRight = a.getDimensionPixelSize(attr, mPadding);
+				} else if (attr == R.styleable.FloatLabel_flPaddingTop) {
+					mPaddingTop = a.getDimensionPixelSize(attr, mPadding);
+				} else if (attr == R.styleable.FloatLabel_flPaddingBottom) {
+					mPaddingBottom = a.getDimensionPixelSize(attr, mPadding);
+				} else if (attr == R.styleable.FloatLabel_flGapSize) {
+					mGap = a.getDimensionPixelSize(attr, 0);
+				} else if (attr == R.styleable.FloatLabel_flAnimationDuration) {
+					mAnimationDuration = a.getInt(attr, -1);
+				} else if (attr == R.styleable.FloatLabel_flDrawLabel) {
+					mDrawLabel = a.getBoolean(attr, false);
+				} else if (attr == R.styleable.FloatLabel_flLabelTransition) {
+					int transitionResId = a.getResourceId(attr, 0);
+					mTransition = transitionResId != 0 ? LabelTransitionSpec.fromResource(context, transitionResId) : null;
+				} else if (attr == R.styleable.FloatLabel_flMorphHint) {
+					mMorphHint = a.getBoolean(attr, false);
+				} else if (attr == R.styleable.FloatLabel_flHelperStyle) {
+					int helperResId = a.getResourceId(attr, 0);
+					mHelperStyle = helperResId != 0 ? LabelStyle.fromResource(context, helperResId) : null;
+				} else if (attr == R.styleable.FloatLabel_flHelperText) {
+					mHelperText = a.getText(attr);
+				} else if (attr == R.styleable.FloatLabel_flErrorColor) {
+					mErrorColor = a.getColorStateList(attr);
+				} else if (attr == R.styleable.FloatLabel_flCounterMaxLength) {
+					mCounterMaxLength = a.getInt(attr, 0);
+				}
+			}
+		}
+
+		private static TextUtils.TruncateAt getEllipsize(int ellipsize) {
+			if (ellipsize == 0) {
+				return null;
+			} else if (ellipsize == 1) {
+				return TextUtils.TruncateAt.START;
+			} else if (ellipsize == 2) {
+				return TextUtils.TruncateAt.MIDDLE;
+			} else {
+				return TextUtils.TruncateAt.END;
+			}
+		}
+	}
+}
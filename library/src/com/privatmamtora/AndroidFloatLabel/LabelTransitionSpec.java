@@ -0,0 +1,252 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.TimeInterpolator;
+import android.content.Context;
+import android.content.res.TypedArray;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.animation.AnimationUtils;
+
+/**
+ * Immutable description of a label transition: the properties animated, with their values when
+ * the label is hidden and when it is shown, and an interpolator. Translations are given relative
+ * to the label height, e.g. 0.125 slides the label by an eighth of its height.
+ * <p/>
+ * A spec is compiled once into flat property tables, shared by every label animated with it
+ * (see {@link SpecLabelAnimator}). It is built in code with a {@link Builder}, or from a style
+ * resource holding R.styleable#FloatLabelTransition attributes, referenced by
+ * R.styleable#FloatLabel_flLabelTransition in XML:
+ * <pre>
+ * &lt;style name="FlipTransition"&gt;
+ *     &lt;item name="flHiddenAlpha"&gt;0&lt;/item&gt;
+ *     &lt;item name="flHiddenRotationX"&gt;90&lt;/item&gt;
+ * &lt;/style&gt;
+ * </pre>
+ */
+public final class LabelTransitionSpec {
+
+	public static final int ALPHA = 0;
+	public static final int TRANSLATION_X = 1;
+	public static final int TRANSLATION_Y = 2;
+	public static final int ROTATION = 3;
+	public static final int ROTATION_X = 4;
+	public static final int ROTATION_Y = 5;
+	public static final int SCALE_X = 6;
+	public static final int SCALE_Y = 7;
+
+	private static final int PROPERTY_COUNT = 8;
+
+	/**
+	 * Same fade/slide as {@link DefaultLabelAnimator}
+	 */
+	public static final LabelTransitionSpec DEFAULT = new Builder()
+			.addProperty(ALPHA, 0, 1)
+			.addProperty(TRANSLATION_Y, 0.125f, 0)
+			.build();
+
+	private static final SparseArray<LabelTransitionSpec> sCache = new SparseArray<LabelTransitionSpec>();
+
+	// Compiled tables, one entry per animated property
+	final int[] mProperties;
+	final float[] mHiddenValues;
+	final float[] mShownValues;
+
+	final TimeInterpolator mInterpolator;
+
+	private LabelTransitionSpec(Builder b) {
+		int count = 0;
+		for (int property = 0; property < PROPERTY_COUNT; property++) {
+			if (b.mSet[property]) {
+				count++;
+			}
+		}
+
+		mProperties = new int[count];
+		mHiddenValues = new float[count];
+		mShownValues = new float[count];
+
+		int i = 0;
+		for (int property = 0; property < PROPERTY_COUNT; property++) {
+			if (b.mSet[property]) {
+				mProperties[i] = property;
+				mHiddenValues[i] = b.mHidden[property];
+				mShownValues[i] = b.mShown[property];
+				i++;
+			}
+		}
+
+		mInterpolator = b.mInterpolator;
+	}
+
+	/**
+	 * Resolves a style resource holding FloatLabelTransition attributes. The result is cached
+	 * per style resource.
+	 *
+	 * @param context         context to resolve the style with
+	 * @param styleResourceId style resource, e.g. R.style.FlipTransition
+	 */
+	public static LabelTransitionSpec fromResource(Context context, int styleResourceId) {
+		synchronized (sCache) {
+			LabelTransitionSpec spec = sCache.get(styleResourceId);
+			if (spec == null) {
+				final TypedArray a = context.obtainStyledAttributes(styleResourceId, R.styleable.FloatLabelTransition);
+				spec = new Builder().applyAttributes(context, a).build();
+				a.recycle();
+
+				sCache.put(styleResourceId, spec);
+			}
+			return spec;
+		}
+	}
+
+	/**
+	 * @return the value of the property on the label, relative to its height for translations
+	 */
+	static float getValue(View label, int property) {
+		switch (property) {
+			case ALPHA:
+				return label.getAlpha();
+			case TRANSLATION_X:
+				return label.getHeight() > 0 ? label.getTranslationX() / label.getHeight() : 0;
+			case TRANSLATION_Y:
+				return label.getHeight() > 0 ? label.getTranslationY() / label.getHeight() : 0;
+			case ROTATION:
+				return label.getRotation();
+			case ROTATION_X:
+				return label.getRotationX();
+			case ROTATION_Y:
+				return label.getRotationY();
+			case SCALE_X:
+				return label.getScaleX();
+			default:
+				return label.getScaleY();
+		}
+	}
+
+	/**
+	 * Sets the property on the label, translations being relative to its height
+	 */
+	static void setValue(View label, int property, float value) {
+		switch (property) {
+			case ALPHA:
+				label.setAlpha(value);
+				break;
+			case TRANSLATION_X:
+				label.setTranslationX(value * label.getHeight());
+				break;
+			case TRANSLATION_Y:
+				label.setTranslationY(value * label.getHeight());
+				break;
+			case ROTATION:
+				label.setRotation(value);
+				break;
+			case ROTATION_X:
+				label.setRotationX(value);
+				break;
+			case ROTATION_Y:
+				label.setRotationY(value);
+				break;
+			case SCALE_X:
+				label.setScaleX(value);
+				break;
+			default:
+				label.setScaleY(value);
+				break;
+		}
+	}
+
+	/**
+	 * Puts the label in the shown state of the spec right away
+	 */
+	void applyShown(View label) {
+		for (int i = 0; i < mProperties.length; i++) {
+			setValue(label, mProperties[i], mShownValues[i]);
+		}
+	}
+
+	/**
+	 * Puts every property a spec can animate back to its natural value
+	 */
+	static void reset(View label) {
+		label.setAlpha(1);
+		label.setTranslationX(0);
+		label.setTranslationY(0);
+		label.setRotation(0);
+		label.setRotationX(0);
+		label.setRotationY(0);
+		label.setScaleX(1);
+		label.setScaleY(1);
+	}
+
+	/**
+	 * Builds {@link LabelTransitionSpec}s in code
+	 */
+	public static final class Builder {
+		private final boolean[] mSet = new boolean[PROPERTY_COUNT];
+		private final float[] mHidden = new float[PROPERTY_COUNT];
+		private final float[] mShown = new float[PROPERTY_COUNT];
+		private TimeInterpolator mInterpolator = null;
+
+		/**
+		 * @param property    one of the property constants, e.g. {@link #ROTATION_X}
+		 * @param hiddenValue value when the label is hidden, the transition starts from it when
+		 *                    showing the label
+		 * @param shownValue  value when the label is shown
+		 */
+		public Builder addProperty(int property, float hiddenValue, float shownValue) {
+			if (property < 0 || property >= PROPERTY_COUNT) {
+				throw new IllegalArgumentException("Unknown property " + property);
+			}
+			mSet[property] = true;
+			mHidden[property] = hiddenValue;
+			mShown[property] = shownValue;
+			return this;
+		}
+
+		/**
+		 * @param interpolator interpolator of the transition, null (the default) for the
+		 *                     ValueAnimator default
+		 */
+		public Builder setInterpolator(TimeInterpolator interpolator) {
+			mInterpolator = interpolator;
+			return this;
+		}
+
+		public LabelTransitionSpec build() {
+			return new LabelTransitionSpec(this);
+		}
+
+		/**
+		 * Reads the FloatLabelTransition attributes set in the given array. Properties not set
+		 * are not animated, shown values are the natural values of the label.
+		 */
+		Builder applyAttributes(Context context, TypedArray a) {
+			for (int i = 0; i < a.getIndexCount(); i++) {
+				int attr = a.getIndex(i);
+				if (attr == R.styleable.FloatLabelTransition_flHiddenAlpha) {
+					addProperty(ALPHA, a.getFloat(attr, 0), 1);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenTranslationX) {
+					addProperty(TRANSLATION_X, a.getFloat(attr, 0), 0);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenTranslationY) {
+					addProperty(TRANSLATION_Y, a.getFloat(attr, 0), 0);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenRotation) {
+					addProperty(ROTATION, a.getFloat(attr, 0), 0);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenRotationX) {
+					addProperty(ROTATION_X, a.getFloat(attr, 0), 0);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenRotationY) {
+					addProperty(ROTATION_Y, a.getFloat(attr, 0), 0);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenScaleX) {
+					addProperty(SCALE_X, a.getFloat(attr, 1), 1);
+				} else if (attr == R.styleable.FloatLabelTransition_flHiddenScaleY) {
+					addProperty(SCALE_Y, a.getFloat(attr, 1), 1);
+				} else if (attr == R.styleable.FloatLabelTransition_android_interpolator) {
+					int interpolatorResId = a.getResourceId(attr, 0);
+					if (interpolatorResId != 0) {
+						setInterpolator(AnimationUtils.loadInterpolator(context, interpolatorResId));
+					}
+				}
+			}
+			return this;
+		}
+	}
+}
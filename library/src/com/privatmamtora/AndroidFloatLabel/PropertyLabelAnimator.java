@@ -0,0 +1,114 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.ObjectAnimator;
+import android.animation.PropertyValuesHolder;
+import android.animation.TimeInterpolator;
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
+
+/**
+ * {@link LabelAnimator} animating the label through the typed {@link View#ALPHA} and
+ * {@link View#TRANSLATION_Y} properties, rather than the "alpha"/"translationY" names which
+ * ObjectAnimator resolves by reflection. Each label gets a single ObjectAnimator holding both
+ * properties, created on its first transition and re-targeted afterwards.
+ * <p/>
+ * Below API 14 the typed properties do not exist and the property names are used instead, they
+ * are then only resolved once per label. One instance can be shared by any number of FloatLabels.
+ */
+public class PropertyLabelAnimator extends BaseLabelAnimator {
+
+	private float mDistance = -1;
+	private TimeInterpolator mInterpolator = new AccelerateDecelerateInterpolator();
+
+	/**
+	 * @param distance distance in px the label slides by, -1 (the default) for an eighth of
+	 *                 its height
+	 */
+	public void setDistance(float distance) {
+		mDistance = distance;
+	}
+
+	/**
+	 * @param interpolator interpolator of the transitions, null for the ObjectAnimator default
+	 *                     (the default)
+	 */
+	public void setInterpolator(TimeInterpolator interpolator) {
+		mInterpolator = interpolator != null ? interpolator : new AccelerateDecelerateInterpolator();
+	}
+
+	@Override
+	Transition newTransition(View label) {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.ICE_CREAM_SANDWICH) {
+			return new PropertyTransition(label, this, Properties.alpha(), Properties.translationY());
+		}
+		return new PropertyTransition(label, this,
+				PropertyValuesHolder.ofFloat("alpha", 0, 1),
+				PropertyValuesHolder.ofFloat("translationY", 0, 0));
+	}
+
+	private float getDistance(View label) {
+		return mDistance >= 0 ? mDistance : label.getHeight() / 8;
+	}
+
+	/**
+	 * Kept apart so that the API 14 properties are only loaded when available
+	 */
+	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+	private static class Properties {
+		static PropertyValuesHolder alpha() {
+			return PropertyValuesHolder.ofFloat(View.ALPHA, 0, 1);
+		}
+
+		static PropertyValuesHolder translationY() {
+			return PropertyValuesHolder.ofFloat(View.TRANSLATION_Y, 0, 0);
+		}
+	}
+
+	/**
+	 * One ObjectAnimator driving both properties, which it sets itself
+	 */
+	private static class PropertyTransition extends AnimatorTransition {
+		private final PropertyLabelAnimator mAnimatorOwner;
+		private final PropertyValuesHolder mAlpha;
+		private final PropertyValuesHolder mTranslationY;
+
+		private float mStartAlpha;
+		private float mStartY;
+
+		PropertyTransition(View label, PropertyLabelAnimator owner, PropertyValuesHolder alpha,
+				PropertyValuesHolder translationY) {
+			super(label, owner, ObjectAnimator.ofPropertyValuesHolder(label, alpha, translationY));
+			mAnimatorOwner = owner;
+			mAlpha = alpha;
+			mTranslationY = translationY;
+		}
+
+		@Override
+		float captureCurrent() {
+			mStartAlpha = mLabel.getAlpha();
+			mStartY = mLabel.getTranslationY();
+			return super.captureCurrent();
+		}
+
+		@Override
+		void captureSettled(boolean show) {
+			mStartAlpha = show ? 0 : 1;
+			mStartY = show ? mAnimatorOwner.getDistance(mLabel) : 0;
+		}
+
+		@Override
+		void play(long duration, float startProgress) {
+			mAlpha.setFloatValues(mStartAlpha, mShow ? 1 : 0);
+			mTranslationY.setFloatValues(mStartY, mShow ? 0 : mAnimatorOwner.getDistance(mLabel));
+			// Set on every start, the animator may have been given a previous interpolator
+			mAnimator.setInterpolator(mAnimatorOwner.mInterpolator);
+			super.play(duration, startProgress);
+		}
+
+		@Override
+		void onFrame(float fraction) {
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.ValueAnimator;
+import android.view.View;
+
+/**
+ * {@link LabelAnimator} producing the same fade/slide as {@link DefaultLabelAnimator}, but which
+ * creates its animation objects only once per label. Every later show/hide re-targets and
+ * restarts the same {@link ValueAnimator}, so steady-state transitions do not allocate.
+ * <p/>
+ * This is a {@link SpecLabelAnimator} playing {@link LabelTransitionSpec#DEFAULT}. The animation
+ * state is held against the label view (see {@link View#setTag(int, Object)}), so a single
+ * instance can be shared by any number of {@link FloatLabel}s.
+ */
+public class ReusableLabelAnimator extends SpecLabelAnimator {
+
+	public ReusableLabelAnimator() {
+		super(LabelTransitionSpec.DEFAULT);
+	}
+}
@@ -0,0 +1,75 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.animation.ValueAnimator;
+import android.view.View;
+
+/**
+ * {@link LabelAnimator} playing a {@link LabelTransitionSpec}. The spec tables are shared by all
+ * the labels, each label only gets one {@link ValueAnimator} and one array of start values,
+ * created on its first transition and reused afterwards. Properties are set through the View
+ * setters directly, without reflection.
+ * <p/>
+ * One instance can be shared by any number of {@link FloatLabel}s.
+ */
+public class SpecLabelAnimator extends BaseLabelAnimator {
+
+	private final LabelTransitionSpec mSpec;
+
+	public SpecLabelAnimator(LabelTransitionSpec spec) {
+		mSpec = spec;
+	}
+
+	public final LabelTransitionSpec getSpec() {
+		return mSpec;
+	}
+
+	@Override
+	void applyShown(View label) {
+		mSpec.applyShown(label);
+	}
+
+	@Override
+	Transition newTransition(View label) {
+		return new SpecTransition(label, this);
+	}
+
+	/**
+	 * Interpolates every property of the spec from the values captured at start to the
+	 * shown/hidden values
+	 */
+	private static class SpecTransition extends AnimatorTransition {
+		private final LabelTransitionSpec mSpec;
+		private final float[] mStartValues;
+
+		SpecTransition(View label, SpecLabelAnimator owner) {
+			super(label, owner, ValueAnimator.ofFloat(0, 1));
+			mSpec = owner.mSpec;
+			mStartValues = new float[mSpec.mProperties.length];
+			if (mSpec.mInterpolator != null) {
+				mAnimator.setInterpolator(mSpec.mInterpolator);
+			}
+		}
+
+		@Override
+		float captureCurrent() {
+			for (int i = 0; i < mStartValues.length; i++) {
+				mStartValues[i] = LabelTransitionSpec.getValue(mLabel, mSpec.mProperties[i]);
+			}
+			return super.captureCurrent();
+		}
+
+		@Override
+		void captureSettled(boolean show) {
+			System.arraycopy(show ? mSpec.mHiddenValues : mSpec.mShownValues, 0, mStartValues, 0, mStartValues.length);
+		}
+
+		@Override
+		void onFrame(float fraction) {
+			float[] endValues = mShow ? mSpec.mShownValues : mSpec.mHiddenValues;
+			for (int i = 0; i < mStartValues.length; i++) {
+				LabelTransitionSpec.setValue(mLabel, mSpec.mProperties[i],
+						mStartValues[i] + (endValues[i] - mStartValues[i]) * fraction);
+			}
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+/**
+ * Checks the text of a {@link FloatLabel}, see {@link FloatLabel#addValidator(TextValidator)}.
+ * <p/>
+ * Validators run on the validation executor of the FloatLabel, off the UI thread by default,
+ * against a snapshot of the text taken once the user stopped typing. They must not touch views.
+ * A run made stale by newer input is dropped between validators and its result is never shown.
+ */
+public interface TextValidator {
+
+	/**
+	 * @param text snapshot of the EditText text
+	 * @return the error to show on the helper line, or null if the text is valid
+	 */
+	public CharSequence validate(String text);
+}
@@ -0,0 +1,83 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.content.Context;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide, bounded cache of the {@link Typeface}s used by labels.
+ * <p/>
+ * Typefaces are keyed by font family or asset path and style, so any number of labels using the
+ * same font share one Typeface, and a font asset is only read from the APK once.
+ */
+public final class TypefaceCache {
+
+	private static final int MAX_SIZE = 16;
+
+	// Access ordered, so the least recently used typeface is the one evicted
+	private static final Map<String, Typeface> sCache = new LinkedHashMap<String, Typeface>(MAX_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Typeface> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private TypefaceCache() {
+	}
+
+	/**
+	 * Cached version of {@link Typeface#create(String, int)}
+	 *
+	 * @param familyName font family name, e.g. "sans-serif-light"
+	 * @param style      typeface style, see {@link Typeface#NORMAL}
+	 * @return the typeface, or null if it could not be created
+	 */
+	public static Typeface get(String familyName, int style) {
+		String key = "family:" + familyName + '#' + style;
+		synchronized (sCache) {
+			Typeface tf = sCache.get(key);
+			if (tf == null) {
+				tf = Typeface.create(familyName, style);
+				if (tf != null) {
+					sCache.put(key, tf);
+				}
+			}
+			return tf;
+		}
+	}
+
+	/**
+	 * Cached version of {@link Typeface#createFromAsset(android.content.res.AssetManager, String)}
+	 *
+	 * @param context   any context of the application
+	 * @param assetPath path of the font file in the assets, e.g. "fonts/Roboto.ttf"
+	 * @return the typeface, or null if the asset could not be loaded
+	 */
+	public static Typeface getFromAsset(Context context, String assetPath) {
+		String key = "asset:" + assetPath;
+		synchronized (sCache) {
+			Typeface tf = sCache.get(key);
+			if (tf == null) {
+				try {
+					tf = Typeface.createFromAsset(context.getAssets(), assetPath);
+				} catch (RuntimeException e) {
+					// Missing or invalid font asset
+					return null;
+				}
+				sCache.put(key, tf);
+			}
+			return tf;
+		}
+	}
+
+	/**
+	 * Drops every cached typeface, e.g. when running low on memory
+	 */
+	public static void clear() {
+		synchronized (sCache) {
+			sCache.clear();
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.privatmamtora.AndroidFloatLabel;
+
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.widget.EditText;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Validation of a FloatLabel, with an executor holding the runs until the test plays them
+ */
+public class FloatLabelValidationTest extends InstrumentationTestCase {
+
+	private FloatLabel mFloatLabel;
+	private EditText mEditText;
+	private final List<Runnable> mRuns = new ArrayList<Runnable>();
+	private final List<String> mValidated = new ArrayList<String>();
+	private final List<String> mDelivered = new ArrayList<String>();
+
+	/**
+	 * Called on the UI thread, as the views are created
+	 */
+	private void createField(int delay) {
+		mFloatLabel = new FloatLabel(getInstrumentation().getTargetContext());
+		mEditText = new EditText(getInstrumentation().getTargetContext());
+		mFloatLabel.addView(mEditText);
+
+		mFloatLabel.setValidationExecutor(new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				mRuns.add(command);
+			}
+		});
+		mFloatLabel.addValidator(new TextValidator() {
+			@Override
+			public CharSequence validate(String text) {
+				mValidated.add(text);
+				return "Invalid " + text;
+			}
+		});
+		mFloatLabel.setOnValidationListener(new FloatLabel.OnValidationListener() {
+			@Override
+			public void onValidated(FloatLabel floatLabel, CharSequence error) {
+				mDelivered.add(error.toString());
+			}
+		});
+		mFloatLabel.setValidationDelay(delay);
+	}
+
+	@UiThreadTest
+	public void testInputIsDebounced() {
+		createField(1000);
+		mEditText.setText("a");
+		mEditText.setText("ab");
+		mEditText.setText("abc");
+		assertEquals("Validation started before the delay", 0, mRuns.size());
+
+		mFloatLabel.validate();
+		assertEquals(1, mRuns.size());
+		mRuns.get(0).run();
+		assertEquals("abc", mValidated.get(0));
+		assertEquals("Invalid abc", mDelivered.get(0));
+		assertEquals("Invalid abc", mFloatLabel.getError().toString());
+	}
+
+	@UiThreadTest
+	public void testStaleRunIsDropped() {
+		createField(0);
+		mEditText.setText("a");
+		mEditText.setText("ab");
+		assertEquals(2, mRuns.size());
+
+		// The stale run finishing first never runs its validators
+		mRuns.get(0).run();
+		mRuns.get(1).run();
+		assertEquals(1, mValidated.size());
+		assertEquals("ab", mValidated.get(0));
+		assertEquals(1, mDelivered.size());
+		assertEquals("Invalid ab", mDelivered.get(0));
+	}
+
+	@UiThreadTest
+	public void testStaleResultIsNotDelivered() {
+		createField(0);
+		mEditText.setText("a");
+		mEditText.setText("ab");
+
+		// The stale run finishing last must not overwrite the latest result
+		mRuns.get(1).run();
+		mRuns.get(0).run();
+		assertEquals(1, mDelivered.size());
+		assertEquals("Invalid ab", mFloatLabel.getError().toString());
+	}
+}